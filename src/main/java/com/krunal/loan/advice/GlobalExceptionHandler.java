@@ -14,6 +14,7 @@ import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.ResponseStatus;
 import org.springframework.web.bind.annotation.RestControllerAdvice;
 import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.multipart.MaxUploadSizeExceededException;
 
 import java.text.ParseException;
 import java.time.format.DateTimeParseException;
@@ -42,6 +43,12 @@ public class GlobalExceptionHandler {
         return new ErrorMessage(HttpStatus.BAD_REQUEST.value(), new Date(), ex.getMessage(), request.getDescription(false));
     }
 
+    @ExceptionHandler(value = MaxUploadSizeExceededException.class)
+    @ResponseStatus(HttpStatus.PAYLOAD_TOO_LARGE)
+    public ErrorMessage handleMaxUploadSizeExceededException(MaxUploadSizeExceededException ex, WebRequest request) {
+        return new ErrorMessage(HttpStatus.PAYLOAD_TOO_LARGE.value(), new Date(), "Error: Uploaded file is too large", request.getDescription(false));
+    }
+
     @ExceptionHandler(value = RoleNotFoundException.class)
     @ResponseStatus(HttpStatus.NOT_FOUND)
     public ErrorMessage handleRoleNotFoundException(RoleNotFoundException ex, WebRequest request) {
@@ -1,6 +1,6 @@
 package com.krunal.loan.aspect;
 
-import com.krunal.loan.repository.UserRepository;
+import com.krunal.loan.payload.response.PageResponse;
 import org.aspectj.lang.annotation.AfterReturning;
 import org.aspectj.lang.annotation.Aspect;
 import org.aspectj.lang.annotation.Pointcut;
@@ -9,18 +9,29 @@ import org.springframework.stereotype.Component;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
 import java.lang.reflect.Field;
-import java.util.List;
+import java.util.*;
 
 @Aspect
 @Component
 public class ResponseAspect {
 
     private static final Logger logger = LoggerFactory.getLogger(ResponseAspect.class);
-    private final UserRepository userService;
 
-    public ResponseAspect(UserRepository userService) {
-        this.userService = userService;
+    // Field accessors are resolved once per class instead of on every call
+    private static final ClassValue<UserFieldAccessors> ACCESSORS = new ClassValue<>() {
+        @Override
+        protected UserFieldAccessors computeValue(Class<?> type) {
+            return new UserFieldAccessors(type);
+        }
+    };
+
+    private final UserNameCache userNameCache;
+
+    public ResponseAspect(UserNameCache userNameCache) {
+        this.userNameCache = userNameCache;
     }
 
     @Pointcut("@annotation(com.krunal.loan.aspect.AddUserNames)")
@@ -33,6 +44,8 @@ public class ResponseAspect {
             handleResponseEntity(responseEntity);
         } else if (result instanceof List<?> list) {
             handleList(list);
+        } else if (result instanceof PageResponse<?> page) {
+            handleList(page.getContent());
         } else {
             handleSingleObject(result);
         }
@@ -43,66 +56,102 @@ public class ResponseAspect {
         if (body != null) {
             if (body instanceof List<?> list) {
                 handleList(list);
+            } else if (body instanceof PageResponse<?> page) {
+                handleList(page.getContent());
             } else {
-                addUpdateUserNameToObject(body);
+                addUpdateUserNames(List.of(body));
             }
         }
     }
 
     private void handleList(List<?> list) {
-        if (!list.isEmpty()) {
-            for (Object item : list) {
-                addUpdateUserNameToObject(item);
-            }
+        if (list != null && !list.isEmpty()) {
+            addUpdateUserNames(list);
         }
     }
 
     private void handleSingleObject(Object result) {
         if (result != null) {
-            addUpdateUserNameToObject(result);
+            addUpdateUserNames(List.of(result));
         }
     }
 
-    private void addUpdateUserNameToObject(Object obj) {
-        try {
-            Long updatedUserId = getFieldValue(obj, "updatedUser");
-            if (updatedUserId != null) {
-                addUserNameToObject(obj, updatedUserId, "updateUserName");
+    private void addUpdateUserNames(List<?> items) {
+        // Collect every referenced user id first so all names are resolved with a single lookup
+        Set<Long> userIds = new HashSet<>();
+        for (Object item : items) {
+            if (item == null) {
+                continue;
             }
+            UserFieldAccessors accessors = ACCESSORS.get(item.getClass());
+            userIds.add(accessors.getUpdatedUser(item));
+            userIds.add(accessors.getAddUser(item));
+        }
+        userIds.remove(null);
+        if (userIds.isEmpty()) {
+            return;
+        }
 
-            Long addUserId = getFieldValue(obj, "addUser");
-            if (addUserId != null) {
-                addUserNameToObject(obj, addUserId, "addUserName");
+        Map<Long, String> userNames = userNameCache.getUserNames(userIds);
+        for (Object item : items) {
+            if (item == null) {
+                continue;
             }
-        } catch (IllegalAccessException e) {
-            logger.error("Error adding user names to object of class '{}'", obj.getClass().getSimpleName(), e);
+            UserFieldAccessors accessors = ACCESSORS.get(item.getClass());
+            accessors.setUpdateUserName(item, userNames.get(accessors.getUpdatedUser(item)));
+            accessors.setAddUserName(item, userNames.get(accessors.getAddUser(item)));
         }
+        logger.info("Added user names to {} object(s) using {} user id(s)", items.size(), userIds.size());
     }
 
-    private Long getFieldValue(Object obj, String fieldName) throws IllegalAccessException {
-        try {
-            Field field = obj.getClass().getDeclaredField(fieldName);
-            field.setAccessible(true);
-            return (Long) field.get(obj);
-        } catch (NoSuchFieldException e) {
-            logger.warn("Field '{}' not found in class '{}'", fieldName, obj.getClass().getSimpleName());
-            return null;
+    private static final class UserFieldAccessors {
+        private final VarHandle addUser;
+        private final VarHandle updatedUser;
+        private final VarHandle addUserName;
+        private final VarHandle updateUserName;
+
+        private UserFieldAccessors(Class<?> type) {
+            this.addUser = findField(type, "addUser", Long.class);
+            this.updatedUser = findField(type, "updatedUser", Long.class);
+            this.addUserName = findField(type, "addUserName", String.class);
+            this.updateUserName = findField(type, "updateUserName", String.class);
         }
-    }
 
-    private void addUserNameToObject(Object obj, Long userId, String userNameField) {
-        userService.findById(userId).ifPresent(user -> {
-            String userName = user.getName();
+        private static VarHandle findField(Class<?> type, String fieldName, Class<?> fieldType) {
             try {
-                Field field = obj.getClass().getDeclaredField(userNameField);
-                field.setAccessible(true);
-                field.set(obj, userName);
-                logger.info("Added {} '{}' to object of class '{}'", userNameField, userName, obj.getClass().getSimpleName());
+                Field field = type.getDeclaredField(fieldName);
+                if (field.getType() != fieldType) {
+                    logger.warn("Field '{}' in class '{}' is not of type {}", fieldName, type.getSimpleName(), fieldType.getSimpleName());
+                    return null;
+                }
+                return MethodHandles.privateLookupIn(type, MethodHandles.lookup()).unreflectVarHandle(field);
             } catch (NoSuchFieldException e) {
-                logger.warn("Field '{}' not found in class '{}'", userNameField, obj.getClass().getSimpleName());
+                logger.debug("Field '{}' not found in class '{}'", fieldName, type.getSimpleName());
+                return null;
             } catch (IllegalAccessException e) {
-                logger.error("Error adding {} to object of class '{}'", userNameField, obj.getClass().getSimpleName(), e);
+                logger.error("Cannot access field '{}' in class '{}'", fieldName, type.getSimpleName(), e);
+                return null;
             }
-        });
+        }
+
+        private Long getAddUser(Object obj) {
+            return addUser != null ? (Long) addUser.get(obj) : null;
+        }
+
+        private Long getUpdatedUser(Object obj) {
+            return updatedUser != null ? (Long) updatedUser.get(obj) : null;
+        }
+
+        private void setAddUserName(Object obj, String userName) {
+            if (addUserName != null && userName != null) {
+                addUserName.set(obj, userName);
+            }
+        }
+
+        private void setUpdateUserName(Object obj, String userName) {
+            if (updateUserName != null && userName != null) {
+                updateUserName.set(obj, userName);
+            }
+        }
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,60 @@
+package com.krunal.loan.aspect;
+
+import com.krunal.loan.common.LruCache;
+import com.krunal.loan.models.User;
+import com.krunal.loan.repository.UserRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.*;
+
+@Component
+public class UserNameCache {
+
+    private static final Logger logger = LoggerFactory.getLogger(UserNameCache.class);
+    private final UserRepository userRepository;
+    private final LruCache<Long, String> names;
+
+    public UserNameCache(UserRepository userRepository,
+                         @Value("${loan.app.userNameCache.maxEntries:1000}") int maxEntries,
+                         @Value("${loan.app.userNameCache.ttlMs:300000}") long ttlMs) {
+        this.userRepository = userRepository;
+        this.names = new LruCache<>(maxEntries, ttlMs);
+    }
+
+    /**
+     * Resolves user names for the given ids, reading the cache first and loading all misses with one query.
+     */
+    public Map<Long, String> getUserNames(Collection<Long> userIds) {
+        Map<Long, String> result = new HashMap<>();
+        Set<Long> missing = new HashSet<>();
+        for (Long userId : userIds) {
+            if (userId == null) {
+                continue;
+            }
+            String name = names.get(userId);
+            if (name != null) {
+                result.put(userId, name);
+            } else {
+                missing.add(userId);
+            }
+        }
+
+        if (!missing.isEmpty()) {
+            logger.debug("Loading {} user names from the database", missing.size());
+            for (User user : userRepository.findAllById(missing)) {
+                if (user.getName() != null) {
+                    names.put(user.getId(), user.getName());
+                    result.put(user.getId(), user.getName());
+                }
+            }
+        }
+        return result;
+    }
+
+    public void evict(Long userId) {
+        names.evict(userId);
+    }
+}
@@ -0,0 +1,151 @@
+package com.krunal.loan.common;
+
+import java.math.RoundingMode;
+
+/**
+ * Money arithmetic on primitive long paise (1/100 of a rupee). Amounts are converted from and to the
+ * double rupee values used by the entities only at the edges, every step in between is exact.
+ */
+public final class MoneyUtils {
+
+    public static final long PAISE_PER_RUPEE = 100L;
+
+    /**
+     * Interest rates are carried as integers in 1/10000 of a percent, 12.5% is 125000
+     */
+    public static final long RATE_SCALE = 10_000L;
+
+    private static final long PERCENT_RATE_DIVISOR = 100L * RATE_SCALE;
+
+    private MoneyUtils() {
+    }
+
+    /**
+     * Converts a rupee amount to paise, rounding half up. Inputs with at most two decimals convert exactly.
+     */
+    public static long toPaise(double rupees) {
+        if (Double.isNaN(rupees) || Double.isInfinite(rupees)) {
+            throw new IllegalArgumentException("Amount must be a finite number");
+        }
+        return Math.round(rupees * PAISE_PER_RUPEE);
+    }
+
+    public static double toRupees(long paise) {
+        return paise / (double) PAISE_PER_RUPEE;
+    }
+
+    /**
+     * Converts a percentage rate such as 12.5 to RATE_SCALE units, rounding half up.
+     */
+    public static long toRateUnits(double ratePercent) {
+        if (Double.isNaN(ratePercent) || Double.isInfinite(ratePercent)) {
+            throw new IllegalArgumentException("Interest rate must be a finite number");
+        }
+        return Math.round(ratePercent * RATE_SCALE);
+    }
+
+    /**
+     * Divides with an explicit rounding mode without allocating.
+     *
+     * @param dividend Value to divide
+     * @param divisor Non zero divisor
+     * @param mode Rounding mode, UNNECESSARY throws when the division is not exact
+     * @return The rounded quotient
+     */
+    public static long divide(long dividend, long divisor, RoundingMode mode) {
+        if (divisor == 0) {
+            throw new ArithmeticException("Division by zero");
+        }
+        long quotient = dividend / divisor;
+        long remainder = dividend % divisor;
+        if (remainder == 0) {
+            return quotient;
+        }
+
+        int sign = ((dividend ^ divisor) < 0) ? -1 : 1;
+        // Compare 2 * |remainder| with |divisor| without overflowing
+        long absRemainder = Math.abs(remainder);
+        long absDivisor = Math.abs(divisor);
+        int half = Long.compare(absRemainder, absDivisor - absRemainder);
+
+        boolean increment = switch (mode) {
+            case UP -> true;
+            case DOWN -> false;
+            case CEILING -> sign > 0;
+            case FLOOR -> sign < 0;
+            case HALF_UP -> half >= 0;
+            case HALF_DOWN -> half > 0;
+            case HALF_EVEN -> half > 0 || (half == 0 && (quotient & 1) != 0);
+            case UNNECESSARY -> throw new ArithmeticException("Rounding necessary");
+        };
+        return increment ? quotient + sign : quotient;
+    }
+
+    /**
+     * Simple interest on a principal: principal * rate% * months / 12.
+     *
+     * @param principalPaise Principal in paise
+     * @param rateUnits Annual rate in RATE_SCALE units
+     * @param months Duration in months
+     * @param mode Rounding mode applied once to the final result
+     * @return Interest in paise
+     */
+    public static long simpleInterest(long principalPaise, long rateUnits, int months, RoundingMode mode) {
+        try {
+            long numerator = Math.multiplyExact(Math.multiplyExact(principalPaise, rateUnits), (long) months);
+            return divide(numerator, PERCENT_RATE_DIVISOR * 12L, mode);
+        } catch (ArithmeticException e) {
+            throw new IllegalArgumentException("Amount is too large for interest calculation", e);
+        }
+    }
+
+    /**
+     * One month of interest on an outstanding balance, rounded half up to the paisa.
+     */
+    public static long monthlyInterest(long balancePaise, long rateUnits) {
+        return simpleInterest(balancePaise, rateUnits, 1, RoundingMode.HALF_UP);
+    }
+
+    /**
+     * Share of part in total as a percentage with two decimals, returned in hundredths of a percent.
+     */
+    public static long percentageShare(long partPaise, long totalPaise, RoundingMode mode) {
+        return divide(Math.multiplyExact(partPaise, 100L * 100L), totalPaise, mode);
+    }
+
+    /**
+     * Regular instalment of a flat schedule, the total rounded half up per instalment. The last instalment
+     * absorbs the remainder so the schedule sums exactly to the total, see lastFlatInstalment.
+     */
+    public static long flatInstalment(long totalPaise, int instalments) {
+        if (instalments <= 0) {
+            throw new IllegalArgumentException("Number of instalments must be greater than zero");
+        }
+        long instalment = divide(totalPaise, instalments, RoundingMode.HALF_UP);
+        // Rounding up on very small totals could leave nothing for the last instalment
+        if (instalment * (instalments - 1) > totalPaise) {
+            instalment = divide(totalPaise, instalments, RoundingMode.DOWN);
+        }
+        return instalment;
+    }
+
+    public static long lastFlatInstalment(long totalPaise, int instalments) {
+        return totalPaise - flatInstalment(totalPaise, instalments) * (instalments - 1);
+    }
+
+    /**
+     * Reducing balance instalment P * r * (1 + r)^n / ((1 + r)^n - 1) with r the monthly rate, rounded half up
+     * to the paisa. The power series itself is evaluated in double.
+     */
+    public static long reducingBalanceInstalment(long principalPaise, long rateUnits, int months) {
+        if (months <= 0) {
+            throw new IllegalArgumentException("Number of instalments must be greater than zero");
+        }
+        if (rateUnits == 0) {
+            return flatInstalment(principalPaise, months);
+        }
+        double monthlyRate = rateUnits / (double) PERCENT_RATE_DIVISOR / 12.0;
+        double growth = Math.pow(1 + monthlyRate, months);
+        return Math.round(principalPaise * monthlyRate * growth / (growth - 1));
+    }
+}
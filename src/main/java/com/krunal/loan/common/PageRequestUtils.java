@@ -0,0 +1,58 @@
+package com.krunal.loan.common;
+
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+
+import java.util.Set;
+
+/**
+ * Builds {@link Pageable} instances for list endpoints from raw request parameters.
+ *
+ * @author Krunal Gajbhiye
+ */
+public class PageRequestUtils {
+
+    /**
+     * Largest page size a list endpoint will serve
+     */
+    public static final int MAX_PAGE_SIZE = 100;
+
+    private PageRequestUtils() {
+    }
+
+    /**
+     * Validates paging parameters and turns them into a Pageable.
+     *
+     * @param page Zero based page number
+     * @param size Page size, at most {@link #MAX_PAGE_SIZE}
+     * @param sort Sort expression as "property" or "property,asc|desc", may be null
+     * @param allowedSortProperties Properties that the caller is allowed to sort on
+     * @param defaultSort Sort used when no sort expression is given
+     * @return Returns the Pageable for the request
+     * @throws IllegalArgumentException if a parameter is out of range or the sort property is not allowed
+     */
+    public static Pageable of(int page, int size, String sort, Set<String> allowedSortProperties, Sort defaultSort) {
+        if (page < 0) {
+            throw new IllegalArgumentException("Page number must not be negative");
+        }
+        if (size <= 0 || size > MAX_PAGE_SIZE) {
+            throw new IllegalArgumentException("Page size must be between 1 and " + MAX_PAGE_SIZE);
+        }
+        if (sort == null || sort.isBlank()) {
+            return PageRequest.of(page, size, defaultSort);
+        }
+
+        String[] parts = sort.split(",");
+        String property = parts[0].trim();
+        if (!allowedSortProperties.contains(property)) {
+            throw new IllegalArgumentException("Sorting by '" + property + "' is not supported");
+        }
+        Sort.Direction direction = Sort.Direction.ASC;
+        if (parts.length > 1) {
+            direction = Sort.Direction.fromOptionalString(parts[1].trim())
+                    .orElseThrow(() -> new IllegalArgumentException("Invalid sort direction: " + parts[1].trim()));
+        }
+        return PageRequest.of(page, size, Sort.by(direction, property));
+    }
+}
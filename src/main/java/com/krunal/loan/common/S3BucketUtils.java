@@ -1,86 +1,348 @@
 package com.krunal.loan.common;
 
+import com.krunal.loan.exception.FileUploadException;
+import com.krunal.loan.storage.FileStore;
+import jakarta.annotation.PreDestroy;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
-import software.amazon.awssdk.core.ResponseBytes;
-import software.amazon.awssdk.core.sync.RequestBody;
-import software.amazon.awssdk.services.s3.S3Client;
-import software.amazon.awssdk.services.s3.model.GetObjectRequest;
-import software.amazon.awssdk.services.s3.model.GetObjectResponse;
-import software.amazon.awssdk.services.s3.model.PutObjectRequest;
-import software.amazon.awssdk.services.s3.model.S3Exception;
-import java.text.SimpleDateFormat;
+import org.springframework.web.multipart.MultipartFile;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.security.MessageDigest;
+import java.time.Duration;
+import java.util.ArrayList;
 import java.util.Base64;
-import java.util.Date;
-import java.util.Random;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
+// Upload and download helpers over the configured FileStore, the S3 names predate the storage abstraction
 @Component
 public class S3BucketUtils {
 
-    @Value("${aws.s3.bucketName}")
-    private String bucketName;
-
     private static final Logger logger = LoggerFactory.getLogger(S3BucketUtils.class);
     private static final String ERROR_MESSAGE = "Error";
+    // Content types accepted on the multipart upload path and the key extension stored for each
+    private static final Map<String, String> ALLOWED_CONTENT_TYPES = Map.of(
+            "image/jpeg", "jpg",
+            "image/png", "png",
+            "image/webp", "webp",
+            "application/pdf", "pdf");
 
-    private final S3Client s3Client;
-    private static final Random random = new Random();
+    private final FileStore fileStore;
+    // Blocking PUTs fan out on virtual threads, the store's connection pool bounds the real concurrency
+    private final ExecutorService uploadExecutor = Executors.newVirtualThreadPerTaskExecutor();
+    private final boolean presignedDelivery;
+    private final Duration presignedUrlTtl;
+    private final LruCache<String, String> presignedUrls;
 
     @Autowired
-    public S3BucketUtils(S3Client s3Client) {
-        this.s3Client = s3Client;
+    public S3BucketUtils(FileStore fileStore,
+                         @Value("${loan.app.fileDelivery:base64}") String fileDelivery,
+                         @Value("${loan.app.presignedUrl.ttlSeconds:900}") long presignedUrlTtlSeconds,
+                         @Value("${loan.app.presignedUrl.cacheMaxEntries:10000}") int presignedUrlCacheMaxEntries) {
+        this.fileStore = fileStore;
+        if (!"base64".equalsIgnoreCase(fileDelivery) && !"presigned".equalsIgnoreCase(fileDelivery)) {
+            throw new IllegalArgumentException("Invalid loan.app.fileDelivery: " + fileDelivery + ", expected base64 or presigned");
+        }
+        if ("presigned".equalsIgnoreCase(fileDelivery) && !fileStore.supportsUrls()) {
+            logger.warn("{} cannot issue download URLs, files are delivered as base64", fileStore.getClass().getSimpleName());
+        }
+        this.presignedDelivery = "presigned".equalsIgnoreCase(fileDelivery) && fileStore.supportsUrls();
+        this.presignedUrlTtl = Duration.ofSeconds(Math.max(presignedUrlTtlSeconds, 60));
+        this.presignedUrls = new LruCache<>(presignedUrlCacheMaxEntries, 0);
+    }
+
+    // True when files are handed to clients as presigned URLs instead of base64 content
+    public boolean isPresignedDelivery() {
+        return presignedDelivery;
+    }
+
+    /**
+     * Short-lived GET URL of an object, the client downloads it from S3 directly. Signing is local and a URL
+     * is reused until a fifth of its lifetime is left, so a client always has at least that long to fetch it.
+     */
+    public String getFileUrlFromS3(String key) {
+        String cachedUrl = presignedUrls.get(key);
+        if (cachedUrl != null) {
+            return cachedUrl;
+        }
+        long signedAt = System.currentTimeMillis();
+        String url = fileStore.getUrl(key, presignedUrlTtl);
+        presignedUrls.put(key, url, signedAt + presignedUrlTtl.toMillis() - presignedUrlTtl.toMillis() / 5);
+        logger.debug("Presigned URL issued for key: {}", key);
+        return url;
     }
 
     public String uploadImageToS3Bucket(String base64Image) {
         logger.info("Getting Started with Amazon S3");
-        Date curDate = DateUtils.getCurrentDateObject(DateUtils.IST);
-        String key;
         byte[] imageBytes;
         if (base64Image != null && !base64Image.isEmpty()) {
             // Decode the base64 image
             imageBytes = Base64.getDecoder().decode(base64Image);
-            String imageName = "_image.jpg";
-            SimpleDateFormat sdf = new SimpleDateFormat("yyyy/MM/dd");
-            int randomNumber = random.nextInt(90000000) + 10000000;
-            key = String.format("%s%s", sdf.format(curDate)+ "/"+randomNumber, imageName);
         } else {
             logger.error("Error no image provided");
             return ERROR_MESSAGE;
         }
 
         try {
-            PutObjectRequest putObjectRequest = PutObjectRequest.builder()
-                    .bucket(bucketName)
-                    .key(key)
-                    .contentType("image/jpeg")
-                    .build();
-
-            s3Client.putObject(putObjectRequest, RequestBody.fromBytes(imageBytes));
-            logger.info("Object uploaded with key: {}", key);
-            return key;
-        } catch (S3Exception e) {
+            return putIfAbsent(imageBytes, "image/jpeg");
+        } catch (RuntimeException e) {
             logger.error("Error uploading file to S3: {}", e.getMessage());
             return ERROR_MESSAGE;
         }
     }
 
-    public String getFileFromS3(String key) {
+    /**
+     * Uploads all images concurrently and returns their keys in input order. Every image is decoded and hashed
+     * before anything is uploaded, so invalid input fails without side effects and identical images in one request
+     * are uploaded once. Images already stored under their content key are not uploaded again.
+     */
+    public List<String> uploadImagesToS3Bucket(Collection<String> base64Images) {
+        List<byte[]> images = new ArrayList<>(base64Images.size());
+        for (String base64Image : base64Images) {
+            if (base64Image == null || base64Image.isEmpty()) {
+                logger.error("Error no image provided");
+                throw new FileUploadException("Error: No image provided");
+            }
+            try {
+                images.add(Base64.getDecoder().decode(base64Image));
+            } catch (IllegalArgumentException e) {
+                logger.error("Invalid Base64 input: {}", e.getMessage());
+                throw new FileUploadException("Error: Invalid Base64 input");
+            }
+        }
+
+        Map<String, byte[]> imagesByKey = new LinkedHashMap<>();
+        List<String> keys = new ArrayList<>(images.size());
+        for (byte[] image : images) {
+            String key = contentKey(HashUtils.sha256Hex(image), "jpg");
+            imagesByKey.putIfAbsent(key, image);
+            keys.add(key);
+        }
+        List<Callable<String>> uploads = new ArrayList<>(imagesByKey.size());
+        imagesByKey.forEach((key, image) -> uploads.add(() -> putIfAbsent(key, image, "image/jpeg")));
+        uploadConcurrently(uploads);
+        return keys;
+    }
+
+    /**
+     * Streams a multipart file to storage under its SHA-256 content key without holding it in memory. The part
+     * is spooled to disk by the servlet container, so it is hashed in a first pass and only streamed to storage
+     * when no object with that key exists yet. The second pass is hashed again and an object whose content does
+     * not match the key is deleted.
+     *
+     * @param file Uploaded part with one of the content types image/jpeg, image/png, image/webp or application/pdf
+     * @return The key, size and hex encoded SHA-256 of the stored object
+     */
+    public StoredFile uploadFileToS3Bucket(MultipartFile file) {
+        if (file == null || file.isEmpty()) {
+            logger.error("Error no image provided");
+            throw new FileUploadException("Error: No image provided");
+        }
+        String contentType = file.getContentType();
+        String extension = extensionFor(contentType);
+        long contentLength = file.getSize();
+        try {
+            String sha256;
+            try (HashingInputStream hashingStream = new HashingInputStream(file.getInputStream())) {
+                hashingStream.transferTo(OutputStream.nullOutputStream());
+                sha256 = HashUtils.toHex(hashingStream.digest.digest());
+            }
+            String key = contentKey(sha256, extension);
+            if (fileStore.exists(key)) {
+                logger.info("Object with key: {} already stored, skipping upload", key);
+                return new StoredFile(key, contentLength, sha256);
+            }
+            try (HashingInputStream hashingStream = new HashingInputStream(file.getInputStream())) {
+                fileStore.put(key, hashingStream, contentLength, contentType.toLowerCase(Locale.ROOT));
+                String storedSha256 = HashUtils.toHex(hashingStream.digest.digest());
+                if (hashingStream.count != contentLength || !storedSha256.equals(sha256)) {
+                    logger.error("Stored {} bytes with sha256 {} for key {}, expected {} bytes", hashingStream.count,
+                            storedSha256, key, contentLength);
+                    deleteFromS3(List.of(key));
+                    throw new FileUploadException("Error: Uploaded file is incomplete");
+                }
+            }
+            logger.info("Object streamed with key: {}, size: {}", key, contentLength);
+            return new StoredFile(key, contentLength, sha256);
+        } catch (IOException e) {
+            logger.error("Error reading uploaded file {}: {}", file.getOriginalFilename(), e.getMessage());
+            throw new FileUploadException("Error: Reading uploaded file");
+        } catch (FileUploadException e) {
+            throw e;
+        } catch (RuntimeException e) {
+            logger.error("Error streaming file to S3: {}", e.getMessage());
+            throw new FileUploadException("Error: Uploading file to S3");
+        }
+    }
+
+    /**
+     * Streams multipart files to S3 concurrently and returns their keys in input order. Every part is validated
+     * before anything is uploaded.
+     */
+    public List<String> uploadFilesToS3Bucket(List<MultipartFile> files) {
+        if (files == null || files.isEmpty()) {
+            logger.error("Error no image provided");
+            throw new FileUploadException("Error: No image provided");
+        }
+        for (MultipartFile file : files) {
+            if (file == null || file.isEmpty()) {
+                logger.error("Error no image provided");
+                throw new FileUploadException("Error: No image provided");
+            }
+            extensionFor(file.getContentType());
+        }
+
+        List<Callable<String>> uploads = new ArrayList<>(files.size());
+        for (MultipartFile file : files) {
+            uploads.add(() -> uploadFileToS3Bucket(file).key());
+        }
+        return uploadConcurrently(uploads);
+    }
+
+    private List<String> uploadConcurrently(List<Callable<String>> tasks) {
+        List<Future<String>> uploads = new ArrayList<>(tasks.size());
+        for (Callable<String> task : tasks) {
+            uploads.add(uploadExecutor.submit(task));
+        }
+
+        List<String> keys = new ArrayList<>(uploads.size());
+        boolean failed = false;
+        for (Future<String> upload : uploads) {
+            try {
+                keys.add(upload.get());
+            } catch (ExecutionException e) {
+                logger.error("Error uploading file to S3: {}", e.getCause().getMessage());
+                failed = true;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                upload.cancel(true);
+                failed = true;
+            }
+        }
+        // Objects that did upload are kept, content keys may already be referenced by other rows and a retry reuses them
+        if (failed) {
+            throw new FileUploadException("Error: Uploading file to S3");
+        }
+        logger.info("Uploaded {} files to S3 concurrently", keys.size());
+        return keys;
+    }
+
+    // Best effort removal of objects whose content does not match their key
+    private void deleteFromS3(Collection<String> keys) {
+        if (keys == null || keys.isEmpty()) {
+            return;
+        }
         try {
-            GetObjectRequest getObjectRequest = GetObjectRequest.builder()
-                    .bucket(bucketName)
-                    .key(key)
-                    .build();
+            fileStore.delete(keys);
+            logger.info("Deleted {} objects from S3", keys.size());
+        } catch (RuntimeException e) {
+            logger.error("Error deleting objects {} from S3: {}", keys, e.getMessage());
+        }
+    }
+
+    private String putIfAbsent(byte[] content, String contentType) {
+        return putIfAbsent(contentKey(HashUtils.sha256Hex(content), extensionFor(contentType)), content, contentType);
+    }
+
+    private String putIfAbsent(String key, byte[] content, String contentType) {
+        if (fileStore.exists(key)) {
+            logger.info("Object with key: {} already stored, skipping upload", key);
+            return key;
+        }
+        fileStore.put(key, content, contentType);
+        return key;
+    }
 
-            ResponseBytes<GetObjectResponse> objectBytes = s3Client.getObjectAsBytes(getObjectRequest);
+    // Identical content always maps to the same key, so it is stored once however often it is uploaded
+    private static String contentKey(String sha256, String extension) {
+        return "sha256/" + sha256.substring(0, 2) + "/" + sha256 + "." + extension;
+    }
+
+    private static String extensionFor(String contentType) {
+        String extension = contentType == null ? null : ALLOWED_CONTENT_TYPES.get(contentType.toLowerCase(Locale.ROOT));
+        if (extension == null) {
+            logger.error("Unsupported upload content type: {}", contentType);
+            throw new FileUploadException("Error: Unsupported file type " + contentType);
+        }
+        return extension;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        uploadExecutor.close();
+    }
+
+    public String getFileFromS3(String key) {
+        try {
+            byte[] byteArray = fileStore.get(key);
             logger.info("Successfully downloaded image with key: {}", key);
-            byte[] byteArray = objectBytes.asByteArray();
             return Base64.getEncoder().encodeToString(byteArray);
-        } catch (S3Exception e) {
-            logger.error("Failed to download image from S3: {}", e.awsErrorDetails().errorMessage());
+        } catch (RuntimeException e) {
+            logger.error("Failed to download image with key {}: {}", key, e.getMessage());
             return ERROR_MESSAGE;
         }
     }
-}
\ No newline at end of file
+
+    public record StoredFile(String key, long size, String sha256) {
+    }
+
+    // Hashes and counts the bytes as the store reads them. Mark is not supported, so bytes the S3 SDK replays from
+    // its own retry buffer are never hashed twice
+    private static final class HashingInputStream extends FilterInputStream {
+        private final MessageDigest digest = HashUtils.newSha256();
+        private long count;
+
+        HashingInputStream(InputStream in) {
+            super(in);
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = super.read();
+            if (b >= 0) {
+                digest.update((byte) b);
+                count++;
+            }
+            return b;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            int read = super.read(b, off, len);
+            if (read > 0) {
+                digest.update(b, off, read);
+                count += read;
+            }
+            return read;
+        }
+
+        @Override
+        public boolean markSupported() {
+            return false;
+        }
+
+        @Override
+        public void mark(int readlimit) {
+            // Not supported
+        }
+
+        @Override
+        public void reset() throws IOException {
+            throw new IOException("mark/reset not supported");
+        }
+    }
+}
@@ -1,19 +1,21 @@
 package com.krunal.loan.config;
 
+import com.zaxxer.hikari.HikariDataSource;
 import org.json.JSONException;
 import org.json.JSONObject;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.core.env.Environment;
-import org.springframework.jdbc.datasource.DriverManagerDataSource;
 import software.amazon.awssdk.auth.credentials.DefaultCredentialsProvider;
 import software.amazon.awssdk.regions.Region;
 import software.amazon.awssdk.services.s3.S3Client;
+import software.amazon.awssdk.services.s3.presigner.S3Presigner;
 import software.amazon.awssdk.services.secretsmanager.SecretsManagerClient;
 import software.amazon.awssdk.services.secretsmanager.model.GetSecretValueRequest;
 import software.amazon.awssdk.services.secretsmanager.model.GetSecretValueResponse;
-import javax.sql.DataSource;
 
 @Configuration
 public class AWSConfig {
@@ -34,6 +36,7 @@ public class AWSConfig {
     }
 
     @Bean
+    @ConditionalOnProperty(name = "loan.app.fileStore", havingValue = "s3", matchIfMissing = true)
     public S3Client amazonS3() {
         return S3Client.builder()
                 .region(Region.of(region))
@@ -41,6 +44,16 @@ public class AWSConfig {
                 .build();
     }
 
+    // Presigning is a local signature over the request, it never calls S3
+    @Bean
+    @ConditionalOnProperty(name = "loan.app.fileStore", havingValue = "s3", matchIfMissing = true)
+    public S3Presigner s3Presigner() {
+        return S3Presigner.builder()
+                .region(Region.of(region))
+                .credentialsProvider(DefaultCredentialsProvider.create())
+                .build();
+    }
+
     @Bean
     public JSONObject secretsClient() throws JSONException {
 
@@ -59,16 +72,19 @@ public class AWSConfig {
         }
     }
 
+    // Pool settings, metrics and the prepared statement cache are bound from spring.datasource.hikari.*
     @Bean
-    public DataSource dataSource() throws JSONException {
+    @ConfigurationProperties(prefix = "spring.datasource.hikari")
+    public HikariDataSource dataSource() throws JSONException {
         JSONObject secret = secretsClient();
         String username = secret.getString("username");
         String password = secret.getString("password");
         String host = secret.getString("host");
         String database = secret.getString("database");
 
-        DriverManagerDataSource dataSource = new DriverManagerDataSource();
-        dataSource.setUrl("jdbc:mysql://" + host + ":3306/" + database + "?allowPublicKeyRetrieval=true&useSSL=false");
+        HikariDataSource dataSource = new HikariDataSource();
+        dataSource.setDriverClassName(env.getProperty("spring.datasource.driver-class-name", "com.mysql.cj.jdbc.Driver"));
+        dataSource.setJdbcUrl("jdbc:mysql://" + host + ":3306/" + database + "?allowPublicKeyRetrieval=true&useSSL=false&rewriteBatchedStatements=true");
         dataSource.setUsername(username);
         dataSource.setPassword(password);
 
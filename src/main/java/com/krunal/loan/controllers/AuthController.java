@@ -201,6 +201,7 @@ public class AuthController {
 
         if (token != null) {
             // Blacklist the token
+            jwtUtils.revokeToken(token);
             blacklistedTokenRepository.deleteAll();
             BlacklistedToken blacklistedToken = new BlacklistedToken();
             blacklistedToken.setToken(token);
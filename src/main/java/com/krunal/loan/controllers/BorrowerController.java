@@ -1,26 +1,31 @@
 package com.krunal.loan.controllers;
 
 import com.krunal.loan.common.DateUtils;
+import com.krunal.loan.common.PageRequestUtils;
 import com.krunal.loan.common.S3BucketUtils;
 import com.krunal.loan.exception.BorrowerNotFoundException;
-import com.krunal.loan.exception.FileUploadException;
 import com.krunal.loan.models.Borrower;
 import com.krunal.loan.models.BorrowerStatus;
-import com.krunal.loan.models.BorrowersFile;
 import com.krunal.loan.payload.request.BorrowerRequest;
+import com.krunal.loan.payload.response.BorrowerListItem;
 import com.krunal.loan.payload.response.MessageResponse;
+import com.krunal.loan.payload.response.PageResponse;
 import com.krunal.loan.repository.BorrowerRepository;
 import com.krunal.loan.security.jwt.JwtUtils;
 import com.krunal.loan.service.impl.BorrowerService;
-import jakarta.transaction.Transactional;
 import jakarta.validation.Valid;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.multipart.MultipartFile;
 import java.util.*;
+import java.util.function.Supplier;
 
 @CrossOrigin(origins = "http://localhost:3000", allowedHeaders = "*", methods = {RequestMethod.GET, RequestMethod.POST, RequestMethod.PUT, RequestMethod.DELETE})
 @RestController
@@ -30,6 +35,7 @@ public class BorrowerController {
     private static final Logger logger = LoggerFactory.getLogger(BorrowerController.class);
     private static final String BORROWER_NOT_FOUND_LOG = "Borrower with ID {} not found";
     private static final String BORROWER_NOT_FOUND_ERROR = "Error: Borrower not found";
+    private static final Set<String> BORROWER_SORT_PROPERTIES = Set.of("borrowerId", "userAccount", "name", "status", "addDate");
 
     private final BorrowerRepository borrowerRepository;
     private final JwtUtils jwtUtils;
@@ -45,7 +51,6 @@ public class BorrowerController {
 
     @PostMapping("/add-borrower")
     @PreAuthorize("hasRole('MANAGER') or hasRole('ADMIN')")
-    @Transactional
     public ResponseEntity<MessageResponse> registerBorrower(@Valid @RequestBody BorrowerRequest borrowerRequest)  {
         logger.info("Registering borrower with name: {}", borrowerRequest.getName());
 
@@ -55,117 +60,48 @@ public class BorrowerController {
 //        }
 
         Set<String> stringBase64Image = borrowerRequest.getBase64Image();
-        Set<BorrowersFile> base64Images = new HashSet<>();
-
-        Borrower borrower = getBorrower(borrowerRequest);
-        borrower.setStatus(BorrowerStatus.ACTIVE.getCode()); // 1 for active
-        borrower.setAddUser(jwtUtils.getLoggedInUserDetails().getId());
-
-        // Set the userAccount using a temporary value
-        borrower.setUserAccount("TEMP");
-
-        borrower = borrowerRepository.save(borrower); // Save the borrower to generate the borrowerId
-        logger.info("Borrower saved with ID: {}", borrower.getBorrowerId());
-
         if (stringBase64Image == null) {
             logger.warn("No image provided for borrower with name: {}", borrowerRequest.getName());
             return ResponseEntity.badRequest().body(new MessageResponse("Error: No image provided"));
-        } else {
-            Borrower finalBorrower = borrower;
-            stringBase64Image.forEach(base64Image -> {
-                try {
-                    // Validate Base64 string
-                    Base64.getDecoder().decode(base64Image);
-
-                    BorrowersFile borrowersFile = new BorrowersFile();
-                    String filePath = bucketUtils3.uploadImageToS3Bucket(base64Image);
-                    if (filePath.equals("Error")) {
-                        logger.error("Error uploading file to S3 for borrower with email: {}", borrowerRequest.getEmail());
-                        throw new FileUploadException("Error: Uploading file to S3");
-                    }
-
-                    borrowersFile.setFilePath(filePath);
-                    borrowersFile.setFileType("Borrower");
-                    borrowersFile.setStatus(1);
-                    borrowersFile.setBorrowerId(finalBorrower.getBorrowerId()); // Set the borrowerId
-                    base64Images.add(borrowersFile);
-                } catch (IllegalArgumentException e) {
-                    logger.error("Invalid Base64 input for borrower with email: {}", borrowerRequest.getEmail(), e);
-                    throw new FileUploadException("Error: Invalid Base64 input");
-                }
-            });
         }
 
-        if (!base64Images.isEmpty()) {
-            base64Images.forEach(borrower::addBorrowersFile);
-        }
-
-        // Set the userAccount using the borrowerId formatted to 7 digits
-        borrower.setUserAccount(String.format("OD-%04d", borrower.getBorrowerId()));
-        borrowerRepository.save(borrower); // Save the borrower again with the updated userAccount
-        logger.info("Borrower user account set to: {}", borrower.getUserAccount());
+        return saveNewBorrower(borrowerRequest, () -> bucketUtils3.uploadImagesToS3Bucket(stringBase64Image));
+    }
 
-        return ResponseEntity.ok(new MessageResponse("Borrower registered successfully!"));
+    // Multipart variant, each image part is streamed from the request to S3 instead of travelling as base64 in JSON
+    @PostMapping(value = "/add-borrower", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    @PreAuthorize("hasRole('MANAGER') or hasRole('ADMIN')")
+    public ResponseEntity<MessageResponse> registerBorrower(@Valid @RequestPart("borrower") BorrowerRequest borrowerRequest,
+                                                            @RequestPart(value = "images", required = false) List<MultipartFile> images) {
+        logger.info("Registering borrower with name: {} from multipart request", borrowerRequest.getName());
+        if (images == null || images.isEmpty()) {
+            logger.warn("No image provided for borrower with name: {}", borrowerRequest.getName());
+            return ResponseEntity.badRequest().body(new MessageResponse("Error: No image provided"));
+        }
+        return saveNewBorrower(borrowerRequest, () -> bucketUtils3.uploadFilesToS3Bucket(images));
     }
 
     @PutMapping("/update-borrower/{id}")
     @PreAuthorize("hasRole('MANAGER') or hasRole('ADMIN')")
     public ResponseEntity<MessageResponse> updateBorrower(@PathVariable Long id, @Valid @RequestBody BorrowerRequest borrowerRequest) {
         logger.info("Updating borrower with ID: {}", id);
-
-        Optional<Borrower> borrowerOptional = borrowerRepository.findById(id);
-        if (borrowerOptional.isEmpty()) {
-            logger.warn(BORROWER_NOT_FOUND_LOG, id);
-            throw new BorrowerNotFoundException(BORROWER_NOT_FOUND_ERROR);
+        Set<String> base64Images = borrowerRequest.getBase64Image();
+        if (base64Images == null || base64Images.isEmpty()) {
+            return updateExistingBorrower(id, borrowerRequest, List::of);
         }
-
-        Borrower borrower = borrowerOptional.get();
-        borrower.setName(borrowerRequest.getName());
-        borrower.setFatherName(borrowerRequest.getFatherName());
-        borrower.setEmail(borrowerRequest.getEmail());
-        borrower.setPhoneNo(borrowerRequest.getPhoneNo());
-        borrower.setAddress(borrowerRequest.getAddress());
-        borrower.setNotes(borrowerRequest.getNotes());
-        borrower.setDob(DateUtils.getDateFromString(borrowerRequest.getDob(), DateUtils.YMD));
-        borrower.setStatus(borrowerRequest.getStatus());
-        borrower.setUpdatedUser(jwtUtils.getLoggedInUserDetails().getId());
-
-        if (!borrowerRequest.getBase64Image().isEmpty()) {
-            Set<BorrowersFile> base64Images = getBorrowersFiles(id, borrowerRequest);
-
-            if (!base64Images.isEmpty()) {
-                this.borrowerRepository.deleteBorrowersFilesByBorrowerId(id);
-                base64Images.forEach(borrower::addBorrowersFile);
-            }
-
-        }
-
-        borrowerRepository.save(borrower);
-        logger.info("Borrower with ID {} updated successfully", id);
-
-        return ResponseEntity.ok(new MessageResponse("Borrower updated successfully!"));
+        return updateExistingBorrower(id, borrowerRequest, () -> bucketUtils3.uploadImagesToS3Bucket(base64Images));
     }
 
-    private Set<BorrowersFile> getBorrowersFiles(Long id, BorrowerRequest borrowerRequest) {
-        Set<String> stringBase64Image = borrowerRequest.getBase64Image();
-        Set<BorrowersFile> base64Images = new HashSet<>();
-
-        if (stringBase64Image != null) {
-            stringBase64Image.forEach(base64Image -> {
-                BorrowersFile borrowersFile = new BorrowersFile();
-                String filePath = bucketUtils3.uploadImageToS3Bucket(base64Image);
-                if (filePath.equals("Error")) {
-                    logger.error("Error uploading file to S3 for borrower with ID: {}", id);
-                    throw new FileUploadException("Error: Uploading file to S3");
-                }
-                borrowersFile.setBorrowerId(id);
-                borrowersFile.setFilePath(filePath);
-                borrowersFile.setFileType("Borrower");
-                borrowersFile.setStatus(1);
-                base64Images.add(borrowersFile);
-            });
+    @PutMapping(value = "/update-borrower/{id}", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    @PreAuthorize("hasRole('MANAGER') or hasRole('ADMIN')")
+    public ResponseEntity<MessageResponse> updateBorrower(@PathVariable Long id,
+                                                          @Valid @RequestPart("borrower") BorrowerRequest borrowerRequest,
+                                                          @RequestPart(value = "images", required = false) List<MultipartFile> images) {
+        logger.info("Updating borrower with ID: {} from multipart request", id);
+        if (images == null || images.isEmpty()) {
+            return updateExistingBorrower(id, borrowerRequest, List::of);
         }
-        return base64Images;
+        return updateExistingBorrower(id, borrowerRequest, () -> bucketUtils3.uploadFilesToS3Bucket(images));
     }
 
     @GetMapping("/{id}")
@@ -173,28 +109,22 @@ public class BorrowerController {
     public ResponseEntity<Borrower> getBorrowerById(@PathVariable Long id) {
         logger.info("Fetching borrower with ID: {}", id);
 
-        Optional<Borrower> borrowerOptional = borrowerService.getAllBorrowersList().stream()
-                .filter(borrower -> borrower.getBorrowerId().equals(id))
-                .findAny();
-
-        if (borrowerOptional.isEmpty()) {
-            logger.warn(BORROWER_NOT_FOUND_LOG, id);
-            throw new BorrowerNotFoundException(BORROWER_NOT_FOUND_ERROR);
-        }
-
-        borrowerOptional.ifPresent(borrower -> {
-            if (borrower.getBorrowersFiles() != null) {
-                borrower.getBorrowersFiles().forEach(borrowersFile -> {
-                    try {
+        Borrower borrower = borrowerService.getBorrowerById(id);
+        if (borrower.getBorrowersFiles() != null) {
+            borrower.getBorrowersFiles().forEach(borrowersFile -> {
+                try {
+                    if (this.bucketUtils3.isPresignedDelivery()) {
+                        borrowersFile.setFileUrl(this.bucketUtils3.getFileUrlFromS3(borrowersFile.getFilePath()));
+                    } else {
                         borrowersFile.setFilePath(this.bucketUtils3.getFileFromS3(borrowersFile.getFilePath()));
-                    } catch (Exception e) {
-                        logger.error("Error fetching file from S3 for borrower: {}", borrower.getUserAccount(), e);
                     }
-                });
-            }
-        });
+                } catch (Exception e) {
+                    logger.error("Error fetching file from S3 for borrower: {}", borrower.getUserAccount(), e);
+                }
+            });
+        }
 
-        return new ResponseEntity<>(borrowerOptional.get(), HttpStatus.OK);
+        return new ResponseEntity<>(borrower, HttpStatus.OK);
     }
 
     @GetMapping("/borrower-list")
@@ -205,6 +135,17 @@ public class BorrowerController {
         return ResponseEntity.ok(borrowers);
     }
 
+    @GetMapping(value = "/borrower-list", params = "page")
+    @PreAuthorize("hasRole('MANAGER') or hasRole('ADMIN')")
+    public ResponseEntity<PageResponse<BorrowerListItem>> getBorrowerPage(
+            @RequestParam("page") int page,
+            @RequestParam(value = "size", defaultValue = "20") int size,
+            @RequestParam(value = "sort", required = false) String sort) {
+        logger.info("Fetching borrower page {} with size {} sorted by {}", page, size, sort);
+        Pageable pageable = PageRequestUtils.of(page, size, sort, BORROWER_SORT_PROPERTIES, Sort.by(Sort.Direction.DESC, "borrowerId"));
+        return ResponseEntity.ok(borrowerService.getBorrowerPage(pageable));
+    }
+
     @DeleteMapping("/{id}")
     @PreAuthorize("hasRole('ADMIN')")
     public ResponseEntity<MessageResponse> deleteBorrower(@PathVariable Long id) {
@@ -231,6 +172,46 @@ public class BorrowerController {
         return ResponseEntity.ok(borrowers);
     }
 
+    // Files are uploaded before the transaction, so no DB connection is held during the PUTs
+    private ResponseEntity<MessageResponse> saveNewBorrower(BorrowerRequest borrowerRequest, Supplier<List<String>> upload) {
+        Borrower borrower = getBorrower(borrowerRequest);
+        borrower.setStatus(BorrowerStatus.ACTIVE.getCode()); // 1 for active
+        borrower.setAddUser(jwtUtils.getLoggedInUserDetails().getId());
+
+        // Stored files are content addressed and may be shared with other borrowers, they are kept if the save fails
+        List<String> filePaths = upload.get();
+        borrower = borrowerService.registerBorrower(borrower, filePaths);
+        logger.info("Borrower user account set to: {}", borrower.getUserAccount());
+
+        return ResponseEntity.ok(new MessageResponse("Borrower registered successfully!"));
+    }
+
+    private ResponseEntity<MessageResponse> updateExistingBorrower(Long id, BorrowerRequest borrowerRequest, Supplier<List<String>> upload) {
+        Optional<Borrower> borrowerOptional = borrowerRepository.findById(id);
+        if (borrowerOptional.isEmpty()) {
+            logger.warn(BORROWER_NOT_FOUND_LOG, id);
+            throw new BorrowerNotFoundException(BORROWER_NOT_FOUND_ERROR);
+        }
+
+        Borrower borrower = borrowerOptional.get();
+        borrower.setName(borrowerRequest.getName());
+        borrower.setFatherName(borrowerRequest.getFatherName());
+        borrower.setEmail(borrowerRequest.getEmail());
+        borrower.setPhoneNo(borrowerRequest.getPhoneNo());
+        borrower.setAddress(borrowerRequest.getAddress());
+        borrower.setNotes(borrowerRequest.getNotes());
+        borrower.setDob(DateUtils.getDateFromString(borrowerRequest.getDob(), DateUtils.YMD));
+        borrower.setStatus(borrowerRequest.getStatus());
+        borrower.setUpdatedUser(jwtUtils.getLoggedInUserDetails().getId());
+
+        // Re-submitted images resolve to their existing content keys and are not uploaded again
+        List<String> filePaths = upload.get();
+        borrowerService.updateBorrower(borrower, filePaths);
+        logger.info("Borrower with ID {} updated successfully", id);
+
+        return ResponseEntity.ok(new MessageResponse("Borrower updated successfully!"));
+    }
+
     private Borrower getBorrower(BorrowerRequest borrowerRequest) {
         Borrower borrower = new Borrower();
         borrower.setName(borrowerRequest.getName());
@@ -1,26 +1,22 @@
 package com.krunal.loan.controllers;
 
-import com.krunal.loan.models.Emi;
-import com.krunal.loan.models.EmiStatus;
 import com.krunal.loan.models.Loan;
+import com.krunal.loan.payload.response.CashFlowProjectionResponse;
 import com.krunal.loan.payload.response.DashBoardLoanCountsResponse;
 import com.krunal.loan.payload.response.EmiListByDateResponse;
-import com.krunal.loan.repository.BorrowerRepository;
-import com.krunal.loan.repository.LoanRepository;
+import com.krunal.loan.payload.response.PortfolioSummaryResponse;
+import com.krunal.loan.service.impl.CashFlowProjectionService;
 import com.krunal.loan.service.impl.DashBoardService;
-import com.krunal.loan.service.impl.EmiService;
+import com.krunal.loan.service.impl.LoanLookupService;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.springframework.data.domain.PageRequest;
-import org.springframework.data.domain.Pageable;
-import org.springframework.data.domain.Sort;
 import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
 
+import java.time.LocalDate;
 import java.time.format.DateTimeParseException;
-import java.util.Comparator;
 import java.util.List;
 import java.util.Map;
 
@@ -29,16 +25,15 @@ import java.util.Map;
 @CrossOrigin(origins = "http://localhost:3000", allowedHeaders = "*", methods = {RequestMethod.GET, RequestMethod.POST, RequestMethod.PUT, RequestMethod.DELETE})
 public class DashboardController {
     private static final Logger logger = LoggerFactory.getLogger(DashboardController.class);
-    private final EmiService emiService;
-    private final LoanRepository loanRepository;
-    private final BorrowerRepository borrowerRepository;
     private final DashBoardService dashBoardService;
+    private final LoanLookupService loanLookupService;
+    private final CashFlowProjectionService cashFlowProjectionService;
 
-    public DashboardController(EmiService emiService, LoanRepository loanRepository, BorrowerRepository borrowerRepository, DashBoardService dashBoardService) {
-        this.emiService = emiService;
-        this.loanRepository = loanRepository;
-        this.borrowerRepository = borrowerRepository;
+    public DashboardController(DashBoardService dashBoardService, LoanLookupService loanLookupService,
+                               CashFlowProjectionService cashFlowProjectionService) {
         this.dashBoardService = dashBoardService;
+        this.loanLookupService = loanLookupService;
+        this.cashFlowProjectionService = cashFlowProjectionService;
     }
 
     @GetMapping("/emi-list")
@@ -46,34 +41,9 @@ public class DashboardController {
     public ResponseEntity<EmiListByDateResponse> getDashboardEmi() {
         logger.info("Received request to get EMI list for dashboard");
         try {
-            EmiListByDateResponse response = new EmiListByDateResponse();
-
-            List<Emi> allEmis = emiService.getALLEmiList();
-
-            List<Emi> upcomingEmis = allEmis.stream()
-                    .filter(emi -> emi.getStatus().equals(EmiStatus.PENDING.getCode()))
-                    .limit(12)
-                    .sorted(Comparator.comparing(Emi::getEmiDate))
-                    .toList();
-            logger.info("Found {} upcoming EMIs", upcomingEmis.size());
-            response.setUpcomingEmis(upcomingEmis);
-
-            List<Emi> receivedEmis = allEmis.stream()
-                    .filter(emi -> emi.getStatus().equals(EmiStatus.APPROVED.getCode()))
-                    .limit(12)
-                    .sorted(Comparator.comparing(Emi::getUpdatedDate).reversed())
-                    .toList();
-            logger.info("Found {} received EMIs", receivedEmis.size());
-            response.setReceivedEmis(receivedEmis);
-
-            List<Emi> bouncedEmis = allEmis.stream()
-                    .filter(emi -> emi.getStatus().equals(EmiStatus.FAILED.getCode()))
-                    .limit(12)
-                    .sorted(Comparator.comparing(Emi::getUpdatedDate).reversed())
-                    .toList();
-            logger.info("Found {} bounced EMIs", bouncedEmis.size());
-            response.setBouncedEmis(bouncedEmis);
-
+            EmiListByDateResponse response = dashBoardService.getDashboardEmiList();
+            logger.info("Found {} upcoming, {} received and {} bounced EMIs", response.getUpcomingEmis().size(),
+                    response.getReceivedEmis().size(), response.getBouncedEmis().size());
             return ResponseEntity.ok(response);
         } catch (Exception e) {
             logger.error("Error fetching EMI list for dashboard: {}", e.getMessage(), e);
@@ -87,18 +57,7 @@ public class DashboardController {
         logger.info("Received request to fetch recent loan accounts");
         try {
             logger.info("Fetching up to 12 recent loans");
-            Pageable pageable = PageRequest.of(0, 12, Sort.by(Sort.Direction.DESC, "id"));
-            List<Loan> loans = loanRepository.findAll(pageable).getContent();
-            loans.forEach(loan -> {
-                try {
-                    String borrowerName = borrowerRepository.findById(loan.getBorrowerId())
-                            .orElseThrow(() -> new RuntimeException("Borrower not found"))
-                            .getName();
-                    loan.setBorrowerName(borrowerName);
-                } catch (Exception e) {
-                    logger.error("Error fetching borrower name for loan id {}: {}", loan.getId(), e.getMessage(), e);
-                }
-            });
+            List<Loan> loans = loanLookupService.getRecentLoans(12);
             logger.info("Successfully fetched {} recent loans", loans.size());
             return ResponseEntity.ok(loans);
         } catch (Exception e) {
@@ -133,6 +92,51 @@ public class DashboardController {
         }
     }
 
+    @GetMapping("/portfolio-summary")
+    @PreAuthorize("hasRole('MANAGER') or hasRole('ADMIN')")
+    public ResponseEntity<?> getPortfolioSummary(
+            @RequestParam("startDate") String startDate,
+            @RequestParam("endDate") String endDate) {
+        try {
+            logger.info("Fetching portfolio summary from {} to {}", startDate, endDate);
+            PortfolioSummaryResponse response = dashBoardService.getPortfolioSummary(startDate, endDate);
+            logger.info("Successfully fetched portfolio summary");
+            return ResponseEntity.ok(response);
+        } catch (DateTimeParseException e) {
+            logger.error("Invalid date format: expected format is yyyy-MM-dd", e);
+            return ResponseEntity.badRequest().body(Map.of("error", "Invalid date format. Expected format: yyyy-MM-dd"));
+        } catch (IllegalArgumentException e) {
+            logger.error("Invalid portfolio summary request: {}", e.getMessage());
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        } catch (Exception e) {
+            logger.error("Error while fetching portfolio summary", e);
+            return ResponseEntity.status(500).body(Map.of("error", "An internal server error occurred"));
+        }
+    }
+
+    @GetMapping("/cashflow")
+    @PreAuthorize("hasRole('MANAGER') or hasRole('ADMIN')")
+    public ResponseEntity<?> getCashFlowProjection(
+            @RequestParam("from") String from,
+            @RequestParam("to") String to,
+            @RequestParam(value = "granularity", defaultValue = "MONTH") String granularity) {
+        try {
+            logger.info("Projecting cash flow from {} to {} by {}", from, to, granularity);
+            CashFlowProjectionResponse response = cashFlowProjectionService.project(LocalDate.parse(from), LocalDate.parse(to), granularity);
+            logger.info("Successfully projected cash flow into {} buckets", response.getBuckets().size());
+            return ResponseEntity.ok(response);
+        } catch (DateTimeParseException e) {
+            logger.error("Invalid date format: expected format is yyyy-MM-dd", e);
+            return ResponseEntity.badRequest().body(Map.of("error", "Invalid date format. Expected format: yyyy-MM-dd"));
+        } catch (IllegalArgumentException e) {
+            logger.error("Invalid cash flow projection request: {}", e.getMessage());
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        } catch (Exception e) {
+            logger.error("Error while projecting cash flow", e);
+            return ResponseEntity.status(500).body(Map.of("error", "An internal server error occurred"));
+        }
+    }
+
     @GetMapping("/monthly-data")
     public ResponseEntity<Map<String, Object>> getMonthlyLoanData(
             @RequestParam("startDate") String startDate,
@@ -5,12 +5,19 @@ import com.krunal.loan.common.S3BucketUtils;
 import com.krunal.loan.exception.LoanCustomException;
 import com.krunal.loan.models.Emi;
 import com.krunal.loan.models.EmiStatus;
+import com.krunal.loan.models.PaymentType;
 import com.krunal.loan.payload.request.CalculateContributionReq;
 import com.krunal.loan.payload.request.EmiCalculationRequest;
+import com.krunal.loan.payload.request.EmiQuoteGridRequest;
 import com.krunal.loan.payload.request.EmiUpdateReq;
 import com.krunal.loan.payload.response.ContributionResponse;
 import com.krunal.loan.payload.response.EmiCalculationResponse;
 import com.krunal.loan.payload.response.EmiListByDateResponse;
+import com.krunal.loan.payload.response.EmiPageResponse;
+import com.krunal.loan.payload.response.EmiQuote;
+import com.krunal.loan.payload.response.ReconciliationReport;
+import com.krunal.loan.service.impl.EmiQuoteService;
+import com.krunal.loan.service.impl.EmiReconciliationService;
 import com.krunal.loan.service.impl.EmiService;
 import jakarta.validation.Valid;
 import org.slf4j.Logger;
@@ -18,13 +25,16 @@ import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.multipart.MultipartFile;
 
+import java.io.IOException;
+import java.io.InputStream;
 import java.time.LocalDate;
 import java.time.format.DateTimeParseException;
-import java.util.Comparator;
 import java.util.List;
 
 @RestController
@@ -35,11 +45,16 @@ public class EmiController {
 
     private final EmiService emiService;
     private final S3BucketUtils bucketUtils;
+    private final EmiReconciliationService emiReconciliationService;
+    private final EmiQuoteService emiQuoteService;
 
     @Autowired
-    public EmiController(EmiService emiService, S3BucketUtils bucketUtils) {
+    public EmiController(EmiService emiService, S3BucketUtils bucketUtils, EmiReconciliationService emiReconciliationService,
+                         EmiQuoteService emiQuoteService) {
         this.emiService = emiService;
         this.bucketUtils = bucketUtils;
+        this.emiReconciliationService = emiReconciliationService;
+        this.emiQuoteService = emiQuoteService;
     }
 
     @PostMapping("/calculate")
@@ -54,6 +69,14 @@ public class EmiController {
     }
 
 
+    @PostMapping("/calculate-batch")
+    @PreAuthorize("hasRole('MANAGER') or hasRole('ADMIN')")
+    public ResponseEntity<List<EmiQuote>> calculateEmiBatch(@Valid @RequestBody EmiQuoteGridRequest request) {
+        logger.info("Received batch EMI quote request for {} amounts, {} rates and {} tenures",
+                request.getLoanAmounts().size(), request.getInterestRates().size(), request.getTenures().size());
+        return ResponseEntity.ok(emiQuoteService.quoteGrid(request));
+    }
+
     @PostMapping("/calculate-contributor-share")
     @PreAuthorize("hasRole('MANAGER') or hasRole('ADMIN')")
     public ResponseEntity<ContributionResponse> calculateContributorShare(@Valid @RequestBody CalculateContributionReq request) {
@@ -75,16 +98,13 @@ public class EmiController {
             LocalDate localDateStart = DateUtils.getDateFromString(startDate, DateUtils.YMD);
             LocalDate localDateEnd = DateUtils.getDateFromString(endDate, DateUtils.YMD);
             EmiListByDateResponse response =new EmiListByDateResponse();
-            List<Emi> upcomingEmis = emiService.filterEmisBetweenDates(localDateStart, localDateEnd, EmiStatus.PENDING.getCode());
-            upcomingEmis.sort(Comparator.comparing(Emi::getEmiDate));
+            List<Emi> upcomingEmis = emiService.filterEmisBetweenDates(localDateStart, localDateEnd, EmiStatus.PENDING.getCode(), true);
             logger.info("Found upcoming {} EMIs", upcomingEmis.size());
             response.setUpcomingEmis(upcomingEmis);
-            List<Emi> receivedEmis = emiService.filterEmisBetweenDates(localDateStart, localDateEnd, EmiStatus.APPROVED.getCode());
-            receivedEmis.sort(Comparator.comparing(Emi::getEmiDate).reversed());
+            List<Emi> receivedEmis = emiService.filterEmisBetweenDates(localDateStart, localDateEnd, EmiStatus.APPROVED.getCode(), false);
             logger.info("Found received {} EMIs", receivedEmis.size());
             response.setReceivedEmis(receivedEmis);
-            List<Emi> bouncedEmis = emiService.filterEmisBetweenDates(localDateStart, localDateEnd, EmiStatus.FAILED.getCode());
-            bouncedEmis.sort(Comparator.comparing(Emi::getEmiDate).reversed());
+            List<Emi> bouncedEmis = emiService.filterEmisBetweenDates(localDateStart, localDateEnd, EmiStatus.FAILED.getCode(), false);
             logger.info("Found bounced {} EMIs", bouncedEmis.size());
             response.setBouncedEmis(bouncedEmis);
             return ResponseEntity.ok(response);
@@ -100,6 +120,36 @@ public class EmiController {
         }
     }
 
+    @GetMapping("/emi-page-by-date")
+    @PreAuthorize("hasRole('MANAGER') or hasRole('ADMIN')")
+    public ResponseEntity<?> getEmiPageByDate(
+            @RequestParam("startDate") String startDate,
+            @RequestParam("endDate") String endDate,
+            @RequestParam("status") Long status,
+            @RequestParam(value = "lastEmiDate", required = false) String lastEmiDate,
+            @RequestParam(value = "lastEmiId", required = false) Long lastEmiId,
+            @RequestParam(value = "size", defaultValue = "50") int size,
+            @RequestParam(value = "ascending", defaultValue = "true") boolean ascending) {
+        logger.info("Received request to get EMI page between {} and {} with status {}", startDate, endDate, status);
+        try {
+            LocalDate localDateStart = DateUtils.getDateFromString(startDate, DateUtils.YMD);
+            LocalDate localDateEnd = DateUtils.getDateFromString(endDate, DateUtils.YMD);
+            LocalDate localLastEmiDate = lastEmiDate != null ? DateUtils.getDateFromString(lastEmiDate, DateUtils.YMD) : null;
+            EmiPageResponse response = emiService.getEmiPageBetweenDates(localDateStart, localDateEnd, status,
+                    localLastEmiDate, lastEmiId, size, ascending);
+            return ResponseEntity.ok(response);
+        } catch (DateTimeParseException e) {
+            logger.error("Invalid date format: expected format is yyyy-MM-dd", e);
+            return ResponseEntity.badRequest().body("Invalid date format. Expected format: yyyy-MM-dd");
+        } catch (IllegalArgumentException e) {
+            logger.error("Invalid EMI page request: {}", e.getMessage());
+            return ResponseEntity.badRequest().body(e.getMessage());
+        } catch (Exception e) {
+            logger.error("Unexpected error fetching EMI page between {} and {}: {}", startDate, endDate, e.getMessage());
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(null);
+        }
+    }
+
     @GetMapping("/emi-list-by-loan-id/{loanId}")
     @PreAuthorize("hasRole('MANAGER') or hasRole('ADMIN')")
     public ResponseEntity<List<Emi>> getEmisByLoanId(@PathVariable Long loanId) {
@@ -123,7 +173,9 @@ public class EmiController {
         logger.info("Received request to get EMI by ID: {}", id);
         try {
             Emi emi = emiService.getEmiById(id);
-            if (emi.getFilePath() != null) {
+            if (emi.getFilePath() != null && this.bucketUtils.isPresignedDelivery()) {
+                emi.setFileUrl(this.bucketUtils.getFileUrlFromS3(emi.getFilePath()));
+            } else if (emi.getFilePath() != null) {
                 emi.setBase64Image(this.bucketUtils.getFileFromS3(emi.getFilePath()));
             }
             logger.info("EMI found with ID: {}", id);
@@ -153,4 +205,47 @@ public class EmiController {
         }
     }
 
-}
\ No newline at end of file
+    // Multipart variant, the receipt image is streamed from its part to S3 instead of travelling as base64 in JSON
+    @PostMapping(value = "/update-emi", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    @PreAuthorize("hasRole('MANAGER') or hasRole('ADMIN')")
+    public ResponseEntity<String> receivePayment(@Valid @RequestPart("payment") EmiUpdateReq receivedPaymentReq,
+                                                 @RequestPart(value = "image", required = false) MultipartFile receipt) {
+        logger.info("Received multipart payment request: {}", receivedPaymentReq);
+        try {
+            emiService.receiveEmiPayment(receivedPaymentReq, receipt);
+            return ResponseEntity.ok("Payment received successfully");
+        } catch (LoanCustomException e) {
+            logger.error("Error processing payment for EMI ID: {}: {}", receivedPaymentReq.getEmiId(), e.getMessage());
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(e.getMessage());
+        } catch (Exception e) {
+            logger.error("Unexpected error processing payment for EMI ID: {}: {}", receivedPaymentReq.getEmiId(), e.getMessage());
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body("Failed to process payment");
+        }
+    }
+
+    @PostMapping(value = "/reconcile", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    @PreAuthorize("hasRole('MANAGER') or hasRole('ADMIN')")
+    public ResponseEntity<ReconciliationReport> reconcileStatement(
+            @RequestParam("file") MultipartFile file,
+            @RequestParam(value = "paymentType", defaultValue = "2") Long paymentType,
+            @RequestParam(value = "dryRun", defaultValue = "false") boolean dryRun) {
+        logger.info("Received bank statement {} of {} bytes for reconciliation", file.getOriginalFilename(), file.getSize());
+        if (file.isEmpty()) {
+            throw new IllegalArgumentException("Statement file is empty");
+        }
+        if (PaymentType.fromCode(paymentType) == null) {
+            throw new IllegalArgumentException("Invalid payment type: " + paymentType);
+        }
+        String fileName = file.getOriginalFilename() != null ? file.getOriginalFilename().toLowerCase() : "";
+        String contentType = file.getContentType() != null ? file.getContentType() : "";
+        boolean jsonLines = fileName.endsWith(".jsonl") || fileName.endsWith(".ndjson") || contentType.contains("json");
+
+        try (InputStream statement = file.getInputStream()) {
+            return ResponseEntity.ok(emiReconciliationService.reconcile(statement, jsonLines, paymentType, dryRun));
+        } catch (IOException e) {
+            logger.error("Error reading bank statement {}: {}", file.getOriginalFilename(), e.getMessage());
+            throw new LoanCustomException("Failed to read bank statement");
+        }
+    }
+
+}
@@ -2,28 +2,36 @@ package com.krunal.loan.controllers;
 
 import com.krunal.loan.aspect.AddUserNames;
 import com.krunal.loan.common.DateUtils;
+import com.krunal.loan.common.MoneyUtils;
+import com.krunal.loan.common.PageRequestUtils;
 import com.krunal.loan.models.Loan;
 import com.krunal.loan.models.LoanContributor;
 import com.krunal.loan.models.LoanStatus;
+import com.krunal.loan.payload.request.BulkLoanActionRequest;
 import com.krunal.loan.payload.request.ContributorRequest;
 import com.krunal.loan.payload.request.CreateLoanAccountRequest;
 import com.krunal.loan.payload.request.EmiScheduleRequest;
 import com.krunal.loan.payload.request.UpdateLoanAccountRequest;
+import com.krunal.loan.payload.response.BulkLoanActionResponse;
+import com.krunal.loan.payload.response.EmiQuote;
+import com.krunal.loan.payload.response.LoanListItem;
 import com.krunal.loan.payload.response.MessageResponse;
+import com.krunal.loan.payload.response.PageResponse;
 import com.krunal.loan.repository.LoanRepository;
 import com.krunal.loan.security.jwt.JwtUtils;
 import com.krunal.loan.service.impl.EmiService;
+import com.krunal.loan.service.impl.LoanApprovalService;
+import com.krunal.loan.service.impl.LoanRepaymentSummaryService;
 import jakarta.validation.Valid;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.bind.annotation.*;
 
-import java.math.BigDecimal;
-import java.math.RoundingMode;
 import java.util.*;
 
 @CrossOrigin(origins = "http://localhost:3000", allowedHeaders = "*", methods = {RequestMethod.GET, RequestMethod.POST, RequestMethod.PUT, RequestMethod.DELETE})
@@ -35,14 +43,20 @@ public class LoanController {
     private static final String LOAN_NOT_FOUND = "Loan not found with ID: %d";
     private static final String LOAN_STATUS_NOT_PENDING = "Loan status can only be updated when the status is pending for ID: %d";
     private static final String LOAN_STATUS_NOT_PENDING_FOR_DELETE = "Loan can only be deleted when the status is pending for ID: %d";
+    private static final Set<String> LOAN_SORT_PROPERTIES = Set.of("id", "loanAccount", "loanAmount", "interestRate", "loanDuration", "emiStartDate", "status", "addDate");
     private final LoanRepository loanRepository;
     private final JwtUtils jwtUtils;
     private final EmiService emiService;
+    private final LoanApprovalService loanApprovalService;
+    private final LoanRepaymentSummaryService loanRepaymentSummaryService;
 
-    public LoanController(LoanRepository loanRepository, JwtUtils jwtUtils, EmiService emiService) {
+    public LoanController(LoanRepository loanRepository, JwtUtils jwtUtils, EmiService emiService, LoanApprovalService loanApprovalService,
+                          LoanRepaymentSummaryService loanRepaymentSummaryService) {
         this.loanRepository = loanRepository;
         this.jwtUtils = jwtUtils;
         this.emiService = emiService;
+        this.loanApprovalService = loanApprovalService;
+        this.loanRepaymentSummaryService = loanRepaymentSummaryService;
     }
 
     @PostMapping("/create-loan-account")
@@ -64,6 +78,7 @@ public class LoanController {
         loan.setLoanContributors(loanContributors);
         loan.setLoanAccount(String.format("LN-%07d", loan.getId()));
         loanRepository.save(loan);
+        loanRepaymentSummaryService.initialize(loan);
         logger.info("Loan account updated with final ID: {}", loan.getLoanAccount());
 
         return ResponseEntity.ok(new MessageResponse("Loan account created successfully!"));
@@ -90,14 +105,19 @@ public class LoanController {
         existingLoan.setEmiStartDate(DateUtils.getDateFromString(loanAccountRequest.getEmiStartDate(), DateUtils.YMD));
         existingLoan.setNotes(loanAccountRequest.getNotes());
         existingLoan.setPaymentModeId(loanAccountRequest.getPaymentModeId());
-        existingLoan.setEmpPerMonth(loanAccountRequest.getEmiPerMonth());
+        existingLoan.setAmortizationMethod(loanAccountRequest.getAmortizationMethod());
+        existingLoan.setStepUpRate(loanAccountRequest.getStepUpRate());
+        existingLoan.setStepUpEveryMonths(loanAccountRequest.getStepUpEveryMonths());
 
         CreateLoanAccountRequest loanAccountRequest1 = new CreateLoanAccountRequest();
         loanAccountRequest1.setLoanAmount(loanAccountRequest.getLoanAmount());
         loanAccountRequest1.setInterestRate(loanAccountRequest.getInterestRate());
         loanAccountRequest1.setLoanDuration(loanAccountRequest.getLoanDuration());
+        loanAccountRequest1.setAmortizationMethod(loanAccountRequest.getAmortizationMethod());
+        loanAccountRequest1.setStepUpRate(loanAccountRequest.getStepUpRate());
+        loanAccountRequest1.setStepUpEveryMonths(loanAccountRequest.getStepUpEveryMonths());
 
-        existingLoan.setExpectedProfit(calculateExpectedProfit(loanAccountRequest1));
+        applyScheduleAmounts(existingLoan, loanAccountRequest1);
         existingLoan.setUpdatedUser(jwtUtils.getLoggedInUserDetails().getId());
 
         // Map ContributorRequest to LoanContributor
@@ -123,6 +143,7 @@ public class LoanController {
 
         // Save updated loan account
         loanRepository.save(existingLoan);
+        loanRepaymentSummaryService.initialize(existingLoan);
         logger.info("Loan account updated with ID: {}", existingLoan.getLoanAccount());
 
         return ResponseEntity.ok(new MessageResponse("Loan account updated successfully!"));
@@ -142,44 +163,13 @@ public class LoanController {
                 return ResponseEntity.badRequest().body(new MessageResponse(String.format(LOAN_NOT_FOUND, loanId)));
             }
 
-            // Fetch EMI summary for the loan
-            List<Object[]> results = emiService.findEmiSummaryByLoanId(loanId);
-            if (results != null && !results.isEmpty()) {
-                Object[] result = results.getFirst();
-
-                // Extract received amount and received EMIs
-                double receivedAmount = result[0] != null ? ((Number) result[0]).doubleValue() : 0.0;
-                int receivedEmis = result[1] != null ? ((Number) result[1]).intValue() : 0;
-
-                // Round received amount to 2 decimal places
-                BigDecimal roundedReceivedAmount = BigDecimal.valueOf(receivedAmount).setScale(2, RoundingMode.HALF_UP);
-
-                // Set values in the loan object
-                loan.setReceivedAmount(roundedReceivedAmount.doubleValue());
-                loan.setReceivedEmis(receivedEmis);
-
-                // Calculate and round expected profit
-                BigDecimal expectedProfit = BigDecimal.valueOf(loan.getExpectedProfit()).setScale(2, RoundingMode.HALF_UP);
-                loan.setExpectedProfit(expectedProfit.doubleValue());
-
-                // Calculate remaining EMIs
-                loan.setRemainingEmis(loan.getLoanDuration() - loan.getReceivedEmis());
-
-                // Calculate and round total amount
-                BigDecimal totalAmount = BigDecimal.valueOf(loan.getLoanDuration() * loan.getEmpPerMonth())
-                        .setScale(2, RoundingMode.HALF_UP);
-                loan.setTotalAmount(totalAmount.doubleValue());
-
-                // Calculate and round outstanding amount
-                BigDecimal outstandingAmount = BigDecimal.valueOf(totalAmount.doubleValue() - roundedReceivedAmount.doubleValue())
-                        .setScale(2, RoundingMode.HALF_UP);
-                loan.setOutstandingAmount(outstandingAmount.doubleValue());
-            }
+            // Received, outstanding and next due come from the maintained repayment summary
+            loanRepaymentSummaryService.applyTo(loan);
+            loan.setExpectedProfit(MoneyUtils.toRupees(MoneyUtils.toPaise(loan.getExpectedProfit())));
             loan.getLoanContributors().forEach(lb ->{
                 lb.setLoanAccount(loan.getLoanAccount());
                 lb.setLoanDuration(loan.getLoanDuration());
             });
-            loan.getEmis().forEach(emi -> emi.setRemainingAmount(BigDecimal.valueOf(emi.getRemainingAmount()).setScale(2, RoundingMode.HALF_UP).doubleValue()));
             logger.info("Loan account with ID: {} fetched successfully", loanId);
             return ResponseEntity.ok(loan);
         } catch (Exception e) {
@@ -196,6 +186,17 @@ public class LoanController {
         return ResponseEntity.ok(loans);
     }
 
+    @GetMapping(value = "/loan-list", params = "page")
+    @PreAuthorize("hasRole('MANAGER') or hasRole('ADMIN')")
+    public ResponseEntity<PageResponse<LoanListItem>> getLoanPage(
+            @RequestParam("page") int page,
+            @RequestParam(value = "size", defaultValue = "20") int size,
+            @RequestParam(value = "sort", required = false) String sort) {
+        logger.info("Fetching loan page {} with size {} sorted by {}", page, size, sort);
+        Pageable pageable = PageRequestUtils.of(page, size, sort, LOAN_SORT_PROPERTIES, Sort.by(Sort.Direction.DESC, "id"));
+        return ResponseEntity.ok(PageResponse.of(loanRepository.findLoanListItems(pageable)));
+    }
+
     @DeleteMapping("/{loanId}")
     @PreAuthorize("hasRole('MANAGER') or hasRole('ADMIN')")
     public ResponseEntity<MessageResponse> deleteLoanAccount(@PathVariable Long loanId) {
@@ -232,19 +233,27 @@ public class LoanController {
         loan.setStatus(LoanStatus.ACTIVE.getCode()); // 1 for approved
         loan.setUpdatedUser(jwtUtils.getLoggedInUserDetails().getId());
 
-        EmiScheduleRequest scheduleRequest = new EmiScheduleRequest();
-        scheduleRequest.setLoanId(loan.getId());
-        scheduleRequest.setLoanAmount(loan.getLoanAmount());
-        scheduleRequest.setInterestRate(loan.getInterestRate());
-        scheduleRequest.setNumberOfEmis(loan.getLoanDuration());
-        scheduleRequest.setFirstEmiDate(loan.getEmiStartDate());
-        emiService.generateEmiSchedule(scheduleRequest);
+        emiService.generateEmiSchedule(EmiScheduleRequest.of(loan));
         loanRepository.updateStatusByLoanId(loan.getId(), loan.getStatus(), loan.getUpdatedUser());
 
         logger.info("Loan account with ID {} approved successfully", loanId);
         return ResponseEntity.ok(new MessageResponse("Loan account approved successfully!"));
     }
 
+    @PutMapping("/approve-bulk")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<BulkLoanActionResponse> approveLoanAccounts(@Valid @RequestBody BulkLoanActionRequest request) {
+        logger.info("Bulk approving {} loan accounts", request.getLoanIds().size());
+        return ResponseEntity.ok(loanApprovalService.approveLoans(request.getLoanIds()));
+    }
+
+    @PutMapping("/reject-bulk")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<BulkLoanActionResponse> rejectLoanAccounts(@Valid @RequestBody BulkLoanActionRequest request) {
+        logger.info("Bulk rejecting {} loan accounts", request.getLoanIds().size());
+        return ResponseEntity.ok(loanApprovalService.rejectLoans(request.getLoanIds()));
+    }
+
     @PutMapping("/reject/{loanId}")
     @PreAuthorize("hasRole('ADMIN')")
     @Transactional
@@ -293,25 +302,19 @@ public class LoanController {
         loan.setEmiStartDate(DateUtils.getDateFromString(loanAccountRequest.getEmiStartDate(), DateUtils.YMD));
         loan.setNotes(loanAccountRequest.getNotes());
         loan.setPaymentModeId(loanAccountRequest.getPaymentModeId());
-        loan.setEmpPerMonth(loanAccountRequest.getEmiPerMonth());
-        loan.setExpectedProfit(calculateExpectedProfit(loanAccountRequest));
+        loan.setAmortizationMethod(loanAccountRequest.getAmortizationMethod());
+        loan.setStepUpRate(loanAccountRequest.getStepUpRate());
+        loan.setStepUpEveryMonths(loanAccountRequest.getStepUpEveryMonths());
+        applyScheduleAmounts(loan, loanAccountRequest);
         return loan;
     }
 
-    private Double calculateExpectedProfit(CreateLoanAccountRequest loanAccountRequest) {
-        Double loanAmount = loanAccountRequest.getLoanAmount();
-        Double annualInterestRate = loanAccountRequest.getInterestRate();
-        Integer loanDurationInMonths = loanAccountRequest.getLoanDuration();
-
-        // Convert annual interest rate to monthly interest rate
-        Double monthlyInterestRate = annualInterestRate / 12;
-
-        // Simple interest calculation
-        double expectedProfit = loanAmount * monthlyInterestRate * loanDurationInMonths / 100;
-
-        // Round the expected profit to 2 decimal places
-        BigDecimal roundedExpectedProfit = BigDecimal.valueOf(expectedProfit).setScale(2, RoundingMode.HALF_UP);
-
-        return roundedExpectedProfit.doubleValue();
+    private void applyScheduleAmounts(Loan loan, CreateLoanAccountRequest loanAccountRequest) {
+        // EMI and profit of the schedule the loan will get, so both agree with its EMIs for every amortization method
+        EmiQuote quote = emiService.quoteLoan(loanAccountRequest.getAmortizationMethod(), loanAccountRequest.getLoanAmount(),
+                loanAccountRequest.getInterestRate(), loanAccountRequest.getLoanDuration(),
+                loanAccountRequest.getStepUpRate(), loanAccountRequest.getStepUpEveryMonths());
+        loan.setEmpPerMonth(quote.getLoanEmi());
+        loan.setExpectedProfit(quote.getTotalInterestPayable());
     }
 }
\ No newline at end of file
@@ -1,15 +1,20 @@
 package com.krunal.loan.controllers;
 
+import com.krunal.loan.common.PageRequestUtils;
 import com.krunal.loan.models.Loan;
 import com.krunal.loan.models.LoanStatus;
 import com.krunal.loan.payload.request.EmiScheduleRequest;
+import com.krunal.loan.payload.response.LoanListItem;
 import com.krunal.loan.payload.response.MessageResponse;
+import com.krunal.loan.payload.response.PageResponse;
 import com.krunal.loan.repository.LoanRepository;
 import com.krunal.loan.security.jwt.JwtUtils;
 import com.krunal.loan.service.impl.EmiService;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.transaction.annotation.Transactional;
@@ -18,6 +23,7 @@ import org.springframework.web.bind.annotation.*;
 import java.util.Collections;
 import java.util.List;
 import java.util.Objects;
+import java.util.Set;
 
 @RestController
 @RequestMapping("/api/notification")
@@ -25,6 +31,7 @@ public class NotificationController {
     private static final Logger logger = LoggerFactory.getLogger(NotificationController.class);
     private static final String LOAN_NOT_FOUND = "Loan not found with ID: %d";
     private static final String LOAN_STATUS_NOT_PENDING = "Loan status can only be updated when the status is pending for ID: %d";
+    private static final Set<String> LOAN_SORT_PROPERTIES = Set.of("id", "loanAccount", "loanAmount", "emiStartDate", "addDate");
 
     private final LoanRepository loanRepository;
     private final JwtUtils jwtUtils;
@@ -57,6 +64,16 @@ public class NotificationController {
         }
     }
 
+    @GetMapping(value = "/new-loan-request", params = "page")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<PageResponse<LoanListItem>> getNewLoanRequestPage(
+            @RequestParam("page") int page,
+            @RequestParam(value = "size", defaultValue = "20") int size,
+            @RequestParam(value = "sort", required = false) String sort) {
+        logger.info("Received request to get new loan requests page {} with size {}", page, size);
+        Pageable pageable = PageRequestUtils.of(page, size, sort, LOAN_SORT_PROPERTIES, Sort.by(Sort.Direction.DESC, "id"));
+        return ResponseEntity.ok(PageResponse.of(loanRepository.findLoanListItemsByStatus(LoanStatus.PENDING.getCode(), pageable)));
+    }
 
     @PutMapping("/approve/{loanId}")
     @PreAuthorize("hasRole('ADMIN')")
@@ -74,13 +91,7 @@ public class NotificationController {
         loan.setStatus(LoanStatus.ACTIVE.getCode()); // 1 for approved
         loan.setUpdatedUser(jwtUtils.getLoggedInUserDetails().getId());
 
-        EmiScheduleRequest scheduleRequest = new EmiScheduleRequest();
-        scheduleRequest.setLoanId(loan.getId());
-        scheduleRequest.setLoanAmount(loan.getLoanAmount());
-        scheduleRequest.setInterestRate(loan.getInterestRate());
-        scheduleRequest.setNumberOfEmis(loan.getLoanDuration());
-        scheduleRequest.setFirstEmiDate(loan.getEmiStartDate());
-        emiService.generateEmiSchedule(scheduleRequest);
+        emiService.generateEmiSchedule(EmiScheduleRequest.of(loan));
         loanRepository.updateStatusByLoanId(loan.getId(), loan.getStatus(), loan.getUpdatedUser());
 
         logger.info("Loan account with ID {} approved successfully", loanId);
@@ -1,5 +1,7 @@
 package com.krunal.loan.controllers;
 
+import com.krunal.loan.aspect.UserNameCache;
+import com.krunal.loan.common.PageRequestUtils;
 import com.krunal.loan.common.S3BucketUtils;
 import com.krunal.loan.exception.*;
 import com.krunal.loan.models.*;
@@ -8,26 +10,37 @@ import com.krunal.loan.payload.request.ResetPasswordRequest;
 import com.krunal.loan.payload.request.UpdateRoleRequest;
 import com.krunal.loan.payload.response.ContributorSummary;
 import com.krunal.loan.payload.response.MessageResponse;
+import com.krunal.loan.payload.response.PageResponse;
 import com.krunal.loan.payload.response.PartnerDetail;
 import com.krunal.loan.payload.response.PartnerList;
+import com.krunal.loan.payload.response.UserListItem;
 import com.krunal.loan.repository.LoanContributorRepository;
-import com.krunal.loan.repository.LoanRepository;
 import com.krunal.loan.repository.RoleRepository;
 import com.krunal.loan.repository.UserRepository;
-import jakarta.transaction.Transactional;
+import com.krunal.loan.security.services.UserDetailsCache;
+import com.krunal.loan.service.impl.LoanLookupService;
+import com.krunal.loan.service.impl.PartnerService;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.multipart.MultipartFile;
 import jakarta.validation.Valid;
 
-import java.text.SimpleDateFormat;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
 import java.util.*;
+import java.util.function.Supplier;
 
 @CrossOrigin(origins = "http://localhost:3000", allowedHeaders = "*", methods = {RequestMethod.GET, RequestMethod.POST, RequestMethod.PUT, RequestMethod.DELETE})
 @RestController
@@ -38,22 +51,32 @@ public class UserRoleController {
     private static final String USER_NOT_FOUND_ERROR = "Error: User not found.";
     private static final String USER_NOT_FOUND_WITH_ID = "User not found with ID: {}";
     private static final String ROLE_NOT_FOUND_ERROR = "Error: Role is not found.";
+    private static final DateTimeFormatter JOIN_DATE_FORMATTER = DateTimeFormatter.ofPattern("dd-MM-yyyy").withZone(ZoneId.systemDefault());
+    private static final Set<String> USER_SORT_PROPERTIES = Set.of("id", "username", "name", "status", "addDate");
 
     private final RoleRepository roleRepository;
     private final UserRepository userRepository;
     private final S3BucketUtils bucketUtils3;
     private final PasswordEncoder encoder;
     private final LoanContributorRepository contributorRepository;
-    private final LoanRepository loanRepository;
+    private final UserNameCache userNameCache;
+    private final PartnerService partnerService;
+    private final LoanLookupService loanLookupService;
+    private final UserDetailsCache userDetailsCache;
+    private final TransactionTemplate transactionTemplate;
 
     @Autowired
-    public UserRoleController(RoleRepository roleRepository, UserRepository userRepository, S3BucketUtils bucketUtils3, PasswordEncoder encoder, LoanContributorRepository contributorRepository, LoanRepository loanRepository) {
+    public UserRoleController(RoleRepository roleRepository, UserRepository userRepository, S3BucketUtils bucketUtils3, PasswordEncoder encoder, LoanContributorRepository contributorRepository, UserNameCache userNameCache, PartnerService partnerService, LoanLookupService loanLookupService, UserDetailsCache userDetailsCache, TransactionTemplate transactionTemplate) {
         this.roleRepository = roleRepository;
         this.userRepository = userRepository;
         this.bucketUtils3 = bucketUtils3;
         this.encoder = encoder;
         this.contributorRepository = contributorRepository;
-        this.loanRepository = loanRepository;
+        this.userNameCache = userNameCache;
+        this.partnerService = partnerService;
+        this.loanLookupService = loanLookupService;
+        this.userDetailsCache = userDetailsCache;
+        this.transactionTemplate = transactionTemplate;
     }
 
     @GetMapping("/rolelist")
@@ -77,25 +100,12 @@ public class UserRoleController {
         PartnerList partnerList = new PartnerList();
         try {
             List<User> users = this.userRepository.findAll(Sort.by(Sort.Direction.DESC, "id"));
+            Map<Long, ContributorSummary> contributorSummaries = partnerService.getContributorSummaries();
             List<User> activeUsers = new ArrayList<>();
             for (User user : users) {
-                Date date = user.getAddDate();
-                String formattedDate = new SimpleDateFormat("dd-MM-yyyy").format(date);
-                user.setJoinDate(formattedDate);
+                user.setJoinDate(formatJoinDate(user.getAddDate()));
                 activeUsers.add(user);
-
-                ContributorSummary contributorSummary = getContributorSummary(user.getId());
-                if (contributorSummary != null) {
-                    user.setInvestedAmount(contributorSummary.getInvestedAmount());
-                    user.setNetProfitAmount(contributorSummary.getNetProfitAmount());
-                    user.setTotalAmount(contributorSummary.getTotalAmount());
-                    user.setNoOfLoanInvested(contributorSummary.getNoOfLoans());
-                } else {
-                    user.setInvestedAmount(0.0);
-                    user.setNetProfitAmount(0.0);
-                    user.setTotalAmount(0.0);
-                    user.setNoOfLoanInvested(0L);
-                }
+                applyContributorSummary(user, contributorSummaries.get(user.getId()));
             }
             partnerList.setUserList(activeUsers);
 
@@ -106,75 +116,138 @@ public class UserRoleController {
         }
     }
 
+    @GetMapping(value = "/userlist", params = "page")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<PageResponse<UserListItem>> getUserPage(
+            @RequestParam("page") int page,
+            @RequestParam(value = "size", defaultValue = "20") int size,
+            @RequestParam(value = "sort", required = false) String sort) {
+        logger.info("Fetching user page {} with size {} sorted by {}", page, size, sort);
+        Pageable pageable = PageRequestUtils.of(page, size, sort, USER_SORT_PROPERTIES, Sort.by(Sort.Direction.DESC, "id"));
+        PageResponse<UserListItem> userPage = PageResponse.of(userRepository.findUserListItems(pageable));
+
+        Map<Long, ContributorSummary> contributorSummaries = partnerService.getContributorSummaries(
+                userPage.getContent().stream().map(UserListItem::getId).toList());
+        userPage.getContent().forEach(user -> {
+            ContributorSummary contributorSummary = contributorSummaries.get(user.getId());
+            user.setInvestedAmount(contributorSummary != null ? contributorSummary.getInvestedAmount() : 0.0);
+            user.setNetProfitAmount(contributorSummary != null ? contributorSummary.getNetProfitAmount() : 0.0);
+            user.setTotalAmount(contributorSummary != null ? contributorSummary.getTotalAmount() : 0.0);
+            user.setNoOfLoanInvested(contributorSummary != null ? contributorSummary.getNoOfLoans() : 0L);
+        });
+        return new ResponseEntity<>(userPage, HttpStatus.OK);
+    }
+
     @PutMapping("/update-user/{id}")
     @PreAuthorize("hasRole('ADMIN')")
-    @Transactional
     public ResponseEntity<MessageResponse> updateUser(@PathVariable Long id, @Valid @RequestBody UpdateRoleRequest user) {
         logger.info("Updating user by  id : {}", id);
+        return applyUserUpdate(id, user, () -> user.getBase64Image() != null ? bucketUtils3.uploadImageToS3Bucket(user.getBase64Image()) : null);
+    }
+
+    // Multipart variant, the profile image is streamed from its part to S3 instead of travelling as base64 in JSON
+    @PutMapping(value = "/update-user/{id}", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<MessageResponse> updateUser(@PathVariable Long id, @Valid @RequestPart("user") UpdateRoleRequest user,
+                                                      @RequestPart(value = "image", required = false) MultipartFile image) {
+        logger.info("Updating user by  id : {} from multipart request", id);
+        return applyUserUpdate(id, user, () -> image != null && !image.isEmpty() ? bucketUtils3.uploadFileToS3Bucket(image).key() : null);
+    }
+
+    private ResponseEntity<MessageResponse> applyUserUpdate(Long id, UpdateRoleRequest user, Supplier<String> imageUpload) {
         try {
-            Optional<User> userOptional = this.userRepository.findById(id);
-            if (userOptional.isPresent()) {
-                User users = userOptional.get();
-                if (!user.getUsername().equals(users.getUsername()) && Boolean.TRUE.equals(userRepository.existsByUsername(user.getUsername()))) {
-                    logger.warn("Username {} is already taken!", user.getUsername());
-                    return ResponseEntity.badRequest().body(new MessageResponse("Error: Username is already taken!"));
-                }
-                users.setUsername(user.getUsername());
-                users.setEmail(user.getEmail());
-                users.setPhoneNo(user.getPhoneNo());
-                users.setStatus(user.getStatus());
-                users.setName(user.getName());
-                String filePath = null;
-                if (user.getBase64Image() != null) {
-                    filePath = bucketUtils3.uploadImageToS3Bucket(user.getBase64Image());
-                    if (filePath.equals("Error")) {
-                        logger.error("Error uploading file to S3 for user: {}", user.getUsername());
-                        return ResponseEntity.badRequest().body(new MessageResponse("Error: Uploading file to S3"));
+            // Cheap checks run first, so a request that is going to be rejected never uploads an image
+            Optional<User> existing = this.userRepository.findById(id);
+            if (existing.isEmpty()) {
+                logger.warn(USER_NOT_FOUND_WITH_ID, user.getUsername());
+                return ResponseEntity.badRequest().body(new MessageResponse(USER_NOT_FOUND_ERROR));
+            }
+            if (isUsernameTaken(user.getUsername(), existing.get())) {
+                logger.warn("Username {} is already taken!", user.getUsername());
+                return ResponseEntity.badRequest().body(new MessageResponse("Error: Username is already taken!"));
+            }
+            // The image is uploaded before the transaction starts, so no DB connection is held during the PUT
+            String filePath = imageUpload.get();
+            if ("Error".equals(filePath)) {
+                logger.error("Error uploading file to S3 for user: {}", user.getUsername());
+                return ResponseEntity.badRequest().body(new MessageResponse("Error: Uploading file to S3"));
+            }
+            return transactionTemplate.execute(status -> {
+                // Re-checked inside the transaction, the user may have changed while the image was uploading
+                Optional<User> userOptional = this.userRepository.findById(id);
+                if (userOptional.isPresent()) {
+                    User users = userOptional.get();
+                    String previousUsername = users.getUsername();
+                    if (isUsernameTaken(user.getUsername(), users)) {
+                        logger.warn("Username {} is already taken!", user.getUsername());
+                        return ResponseEntity.badRequest().body(new MessageResponse("Error: Username is already taken!"));
                     }
-                    users.setFilePath(filePath);
-                }
-                Set<String> strRoles = user.getRole();
-                Set<Role> roles = new HashSet<>();
+                    users.setUsername(user.getUsername());
+                    users.setEmail(user.getEmail());
+                    users.setPhoneNo(user.getPhoneNo());
+                    users.setStatus(user.getStatus());
+                    users.setName(user.getName());
+                    if (filePath != null) {
+                        users.setFilePath(filePath);
+                    }
+                    Set<String> strRoles = user.getRole();
+                    Set<Role> roles = new HashSet<>();
 
-                if (strRoles == null) {
-                    Role userRole = roleRepository.findByName(ERole.ROLE_USER)
-                            .orElseThrow(() -> new RuntimeException(ROLE_NOT_FOUND_ERROR));
-                    roles.add(userRole);
-                } else {
-                    strRoles.forEach(role -> {
-                        switch (role) {
-                            case "ROLE_ADMIN":
-                                Role adminRole = roleRepository.findByName(ERole.ROLE_ADMIN)
-                                        .orElseThrow(() -> new RuntimeException(ROLE_NOT_FOUND_ERROR));
-                                roles.add(adminRole);
-
-                                break;
-                            case "ROLE_MANAGER":
-                                Role modRole = roleRepository.findByName(ERole.ROLE_MANAGER)
-                                        .orElseThrow(() -> new RuntimeException(ROLE_NOT_FOUND_ERROR));
-                                roles.add(modRole);
-
-                                break;
-                            default:
-                                Role userRole = roleRepository.findByName(ERole.ROLE_USER)
-                                        .orElseThrow(() -> new RuntimeException(ROLE_NOT_FOUND_ERROR));
-                                roles.add(userRole);
+                    if (strRoles == null) {
+                        Role userRole = roleRepository.findByName(ERole.ROLE_USER)
+                                .orElseThrow(() -> new RuntimeException(ROLE_NOT_FOUND_ERROR));
+                        roles.add(userRole);
+                    } else {
+                        strRoles.forEach(role -> {
+                            switch (role) {
+                                case "ROLE_ADMIN":
+                                    Role adminRole = roleRepository.findByName(ERole.ROLE_ADMIN)
+                                            .orElseThrow(() -> new RuntimeException(ROLE_NOT_FOUND_ERROR));
+                                    roles.add(adminRole);
+
+                                    break;
+                                case "ROLE_MANAGER":
+                                    Role modRole = roleRepository.findByName(ERole.ROLE_MANAGER)
+                                            .orElseThrow(() -> new RuntimeException(ROLE_NOT_FOUND_ERROR));
+                                    roles.add(modRole);
+
+                                    break;
+                                default:
+                                    Role userRole = roleRepository.findByName(ERole.ROLE_USER)
+                                            .orElseThrow(() -> new RuntimeException(ROLE_NOT_FOUND_ERROR));
+                                    roles.add(userRole);
+                            }
+                        });
+                    }
+                    users.setRoles(roles);
+                    this.userRepository.save(users);
+                    // Evicted only once the update is visible, a read in between would cache the old row again
+                    TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                        @Override
+                        public void afterCommit() {
+                            userNameCache.evict(id);
+                            userDetailsCache.evict(previousUsername);
                         }
                     });
+                    return ResponseEntity.ok(new MessageResponse("User updated successfully!"));
+                } else {
+                    logger.warn(USER_NOT_FOUND_WITH_ID, user.getUsername());
+                    return ResponseEntity.badRequest().body(new MessageResponse(USER_NOT_FOUND_ERROR));
                 }
-                users.setRoles(roles);
-                this.userRepository.save(users);
-                return ResponseEntity.ok(new MessageResponse("User updated successfully!"));
-            } else {
-                logger.warn(USER_NOT_FOUND_WITH_ID, user.getUsername());
-                return ResponseEntity.badRequest().body(new MessageResponse(USER_NOT_FOUND_ERROR));
-            }
+            });
+        } catch (FileUploadException e) {
+            logger.error("Error uploading file to S3 for user: {}", user.getUsername());
+            return ResponseEntity.badRequest().body(new MessageResponse(e.getMessage()));
         } catch (Exception e) {
             logger.error("Error updating user with username: {}", user.getUsername(), e);
             return ResponseEntity.badRequest().body(new MessageResponse(USER_NOT_FOUND_ERROR));
         }
     }
 
+    private boolean isUsernameTaken(String username, User current) {
+        return !username.equals(current.getUsername()) && Boolean.TRUE.equals(userRepository.existsByUsername(username));
+    }
+
     @DeleteMapping("/delete-user/{id}")
     @PreAuthorize("hasRole('ADMIN')")
     public ResponseEntity<MessageResponse> deleteUser(@PathVariable Long id) {
@@ -183,6 +256,8 @@ public class UserRoleController {
             Optional<User> userOptional = this.userRepository.findById(id);
             if (userOptional.isPresent()) {
                 this.userRepository.deleteById(id);
+                userNameCache.evict(id);
+                userDetailsCache.evict(userOptional.get().getUsername());
                 return ResponseEntity.ok(new MessageResponse("User deleted successfully!"));
             } else {
                 logger.warn(USER_NOT_FOUND_WITH_ID, id);
@@ -202,38 +277,26 @@ public class UserRoleController {
         Optional<User> userOptional = this.userRepository.findById(id);
         if (userOptional.isPresent()) {
             userOptional.ifPresent(user -> {
-                Date date = user.getAddDate();
-                String formattedDate = new SimpleDateFormat("dd-MM-yyyy").format(date);
-                user.setJoinDate(formattedDate);
+                user.setJoinDate(formatJoinDate(user.getAddDate()));
 
                 if (user.getFilePath() != null) {
                     try {
-                        user.setBase64Image(this.bucketUtils3.getFileFromS3(user.getFilePath()));
+                        if (this.bucketUtils3.isPresignedDelivery()) {
+                            user.setFileUrl(this.bucketUtils3.getFileUrlFromS3(user.getFilePath()));
+                        } else {
+                            user.setBase64Image(this.bucketUtils3.getFileFromS3(user.getFilePath()));
+                        }
                     } catch (Exception e) {
                         logger.error("Error fetching file from S3 for user: {}", user.getUsername(), e);
                     }
                 }
-                ContributorSummary contributorSummary = getContributorSummary(user.getId());
-                if (contributorSummary != null) {
-                    user.setInvestedAmount(contributorSummary.getInvestedAmount());
-                    user.setNetProfitAmount(contributorSummary.getNetProfitAmount());
-                    user.setTotalAmount(contributorSummary.getTotalAmount());
-                    user.setNoOfLoanInvested(contributorSummary.getNoOfLoans());
-                } else {
-                    user.setInvestedAmount(0.0);
-                    user.setNetProfitAmount(0.0);
-                    user.setTotalAmount(0.0);
-                    user.setNoOfLoanInvested(0L);
-                }
+                applyContributorSummary(user, partnerService.getContributorSummary(user.getId()));
             });
 
             partnerDetail.setUser(userOptional.get());
 
             List<LoanContributor> contributorList = contributorRepository.findByContributorId(id);
-            contributorList.forEach(lb -> loanRepository.findById(lb.getLoanId()).ifPresent(loan -> {
-                lb.setLoanAccount(loan.getLoanAccount());
-                lb.setLoanDuration(loan.getLoanDuration());
-            }));
+            loanLookupService.applyLoanAccounts(contributorList);
             partnerDetail.setContributorList(contributorList);
             return new ResponseEntity<>(partnerDetail, HttpStatus.OK);
         } else {
@@ -259,6 +322,7 @@ public class UserRoleController {
 
                 user.setPassword(encoder.encode(resetPassword.getNewPassword()));
                 this.userRepository.updatePasswordById(user.getId(), user.getPassword());
+                userDetailsCache.evict(user.getUsername());
                 logger.info("Password reset successfully for user ID: {}", resetPassword.getId());
                 return ResponseEntity.ok(new MessageResponse("Password reset successfully!"));
             } else {
@@ -293,6 +357,7 @@ public class UserRoleController {
 
                 user.setPassword(encoder.encode(changePasswordRequest.getNewPassword()));
                 this.userRepository.save(user);
+                userDetailsCache.evict(user.getUsername());
                 logger.info("Password changed successfully for user ID: {}", id);
                 return ResponseEntity.ok(new MessageResponse("Password changed successfully!"));
             } else {
@@ -306,16 +371,24 @@ public class UserRoleController {
     }
 
     public ContributorSummary getContributorSummary(Long contributorId) {
-        List<Object[]> results = contributorRepository.findContributorSummaryByContributorId(contributorId);
-        if (results != null && !results.isEmpty()) {
-            Object[] result = results.getFirst();
-            Double investedAmount = result[0] != null ? ((Number) result[0]).doubleValue() : 0.0;
-            Double netProfitAmount = result[1] != null ? ((Number) result[1]).doubleValue() : 0.0;
-            Long noOfLoans = result[2] != null ? ((Number) result[2]).longValue() : 0L;
-            Double totalAmount = investedAmount + netProfitAmount;
-
-            return new ContributorSummary(investedAmount, netProfitAmount, totalAmount, noOfLoans);
+        return partnerService.getContributorSummary(contributorId);
+    }
+
+    private static String formatJoinDate(Date date) {
+        return date != null ? JOIN_DATE_FORMATTER.format(date.toInstant()) : null;
+    }
+
+    private static void applyContributorSummary(User user, ContributorSummary contributorSummary) {
+        if (contributorSummary != null) {
+            user.setInvestedAmount(contributorSummary.getInvestedAmount());
+            user.setNetProfitAmount(contributorSummary.getNetProfitAmount());
+            user.setTotalAmount(contributorSummary.getTotalAmount());
+            user.setNoOfLoanInvested(contributorSummary.getNoOfLoans());
+        } else {
+            user.setInvestedAmount(0.0);
+            user.setNetProfitAmount(0.0);
+            user.setTotalAmount(0.0);
+            user.setNoOfLoanInvested(0L);
         }
-        return null;
     }
 }
\ No newline at end of file
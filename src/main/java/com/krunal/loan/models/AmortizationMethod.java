@@ -0,0 +1,35 @@
+package com.krunal.loan.models;
+
+import lombok.Getter;
+
+@Getter
+public enum AmortizationMethod {
+    FLAT(1L, "Flat"),
+    REDUCING_BALANCE(2L, "Reducing Balance"),
+    INTEREST_ONLY(3L, "Interest Only"),
+    STEP_UP(4L, "Step Up");
+
+    private final Long code;
+    private final String displayName;
+
+    AmortizationMethod(Long code, String displayName) {
+        this.code = code;
+        this.displayName = displayName;
+    }
+
+    public static AmortizationMethod fromCode(Long code) {
+        if (code == null) return null;
+        for (AmortizationMethod type : AmortizationMethod.values()) {
+            if (type.getCode().equals(code)) {
+                return type;
+            }
+        }
+        return null;
+    }
+
+    // Loans created before the method was recorded were scheduled flat
+    public static AmortizationMethod fromCodeOrFlat(Long code) {
+        AmortizationMethod method = fromCode(code);
+        return method != null ? method : FLAT;
+    }
+}
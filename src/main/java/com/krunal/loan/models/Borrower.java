@@ -19,7 +19,11 @@ import java.util.List;
 import java.util.Set;
 
 @Entity
-@Table(name = "borrowers")
+@Table(name = "borrowers",
+		indexes = {
+				@Index(name = "idx_borrowers_add_date", columnList = "add_date"),
+				@Index(name = "idx_borrowers_updated_date", columnList = "updated_date")
+		})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -28,6 +28,10 @@ public class BorrowersFile {
 	@Column(length = 10)
 	private String fileType;
 
+	// Presigned download URL, set instead of replacing filePath with base64 content
+	@Transient
+	private String fileUrl;
+
 	@Column(length = 1)
 	private int status = 1;
 
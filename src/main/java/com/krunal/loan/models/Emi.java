@@ -19,7 +19,12 @@ import java.time.format.DateTimeFormatter;
 import java.util.Date;
 
 @Entity
-@Table(name = "emis")
+@Table(name = "emis",
+        indexes = {
+                @Index(name = "idx_emis_status_emi_date", columnList = "status, emi_date, emi_id"),
+                @Index(name = "idx_emis_status_updated_date", columnList = "status, updated_date"),
+                @Index(name = "idx_emis_updated_date", columnList = "updated_date")
+        })
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -50,6 +55,13 @@ public class Emi {
     @NotNull
     private Double remainingAmount;
 
+    // Principal and interest parts of emiAmount, and the principal still outstanding after this EMI
+    private Double principalAmount;
+
+    private Double interestAmount;
+
+    private Double principalBalance;
+
     private Long paymentMode;
 
     @Transient
@@ -80,6 +92,9 @@ public class Emi {
     @Transient
     private String base64Image;
 
+    @Transient
+    private String fileUrl;
+
     @Transient
     private String addUserName;
 
@@ -18,6 +18,10 @@ import java.util.*;
 @Table(name = "loans",
         uniqueConstraints = {
                 @UniqueConstraint(columnNames = "loan_account")
+        },
+        indexes = {
+                @Index(name = "idx_loans_add_date_status", columnList = "add_date, status"),
+                @Index(name = "idx_loans_updated_date", columnList = "updated_date")
         })
 @Data
 @NoArgsConstructor
@@ -66,6 +70,10 @@ public class Loan {
     @Transient
     private Integer remainingEmis; // in months
 
+    @Transient
+    @JsonFormat(shape = JsonFormat.Shape.STRING, pattern = "yyyy-MM-dd")
+    private LocalDate nextDueDate;
+
     @JsonFormat(shape = JsonFormat.Shape.STRING, pattern = "yyyy-MM-dd")
     private LocalDate emiStartDate;
 
@@ -75,6 +83,17 @@ public class Loan {
     @NotNull
     private Double expectedProfit;
 
+    // AmortizationMethod code, null means flat
+    private Long amortizationMethod;
+
+    @Transient
+    private String amortizationMethodName;
+
+    // Step-up schedules raise the EMI by stepUpRate percent every stepUpEveryMonths
+    private Double stepUpRate;
+
+    private Integer stepUpEveryMonths;
+
     @Column(nullable = false)
     private Long status;
 
@@ -130,6 +149,10 @@ public class Loan {
         return (loanStatus != null) ? loanStatus.getDisplayName() : "Unknown";
     }
 
+    public String getAmortizationMethodName() {
+        return AmortizationMethod.fromCodeOrFlat(this.amortizationMethod).getDisplayName();
+    }
+
     public String getEmiStartDateString() {
         DateTimeFormatter formatter = DateTimeFormatter.ofPattern("dd-MM-yyyy");
         if(emiStartDate != null){
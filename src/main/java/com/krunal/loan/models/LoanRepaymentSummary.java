@@ -0,0 +1,41 @@
+package com.krunal.loan.models;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+// Repayment totals of one loan, refreshed in the same transaction as every change to its EMIs
+@Entity
+@Table(name = "loan_repayment_summaries")
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+public class LoanRepaymentSummary {
+    @Id
+    @Column(name = "loan_id")
+    private Long loanId;
+
+    private Double totalAmount;
+
+    private Double receivedAmount;
+
+    private Integer receivedEmis;
+
+    private Double outstandingAmount;
+
+    // Earliest pending or bounced EMI, null once the loan is fully paid
+    @JsonFormat(shape = JsonFormat.Shape.STRING, pattern = "yyyy-MM-dd")
+    private LocalDate nextDueDate;
+
+    private LocalDateTime updatedDate;
+}
@@ -0,0 +1,94 @@
+package com.krunal.loan.models;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+// One row of dashboard figures per day, maintained by PortfolioRollupService
+@Entity
+@Table(name = "portfolio_daily_rollups")
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+public class PortfolioDailyRollup {
+    @Id
+    @Column(name = "rollup_date")
+    @JsonFormat(shape = JsonFormat.Shape.STRING, pattern = "yyyy-MM-dd")
+    private LocalDate rollupDate;
+
+    // Loans and borrowers count on the day they were added, loans under their current status
+    private long totalLoans;
+    private double totalLoanAmount;
+    private long activeLoans;
+    private double activeLoanAmount;
+    private long pendingLoans;
+    private double pendingLoanAmount;
+    private long rejectedLoans;
+    private double rejectedLoanAmount;
+    private long closedLoans;
+    private double closedLoanAmount;
+    private long newBorrowers;
+
+    // EMIs count on their due date, collections on the day the payment was received
+    private long emisDue;
+    private double emisDueAmount;
+    private long emisCollected;
+    private double emisCollectedAmount;
+    private long emisBounced;
+    private double emisBouncedAmount;
+
+    private LocalDateTime updatedDate;
+
+    public PortfolioDailyRollup(LocalDate rollupDate) {
+        this.rollupDate = rollupDate;
+    }
+
+    public void addLoans(Long status, long count, double amount) {
+        totalLoans += count;
+        totalLoanAmount += amount;
+        if (LoanStatus.ACTIVE.getCode().equals(status)) {
+            activeLoans += count;
+            activeLoanAmount += amount;
+        } else if (LoanStatus.PENDING.getCode().equals(status)) {
+            pendingLoans += count;
+            pendingLoanAmount += amount;
+        } else if (LoanStatus.REJECTED.getCode().equals(status)) {
+            rejectedLoans += count;
+            rejectedLoanAmount += amount;
+        } else if (LoanStatus.CLOSED.getCode().equals(status)) {
+            closedLoans += count;
+            closedLoanAmount += amount;
+        }
+    }
+
+    // Adds another day into this one, used to total a date range
+    public void add(PortfolioDailyRollup other) {
+        totalLoans += other.totalLoans;
+        totalLoanAmount += other.totalLoanAmount;
+        activeLoans += other.activeLoans;
+        activeLoanAmount += other.activeLoanAmount;
+        pendingLoans += other.pendingLoans;
+        pendingLoanAmount += other.pendingLoanAmount;
+        rejectedLoans += other.rejectedLoans;
+        rejectedLoanAmount += other.rejectedLoanAmount;
+        closedLoans += other.closedLoans;
+        closedLoanAmount += other.closedLoanAmount;
+        newBorrowers += other.newBorrowers;
+        emisDue += other.emisDue;
+        emisDueAmount += other.emisDueAmount;
+        emisCollected += other.emisCollected;
+        emisCollectedAmount += other.emisCollectedAmount;
+        emisBounced += other.emisBounced;
+        emisBouncedAmount += other.emisBouncedAmount;
+    }
+}
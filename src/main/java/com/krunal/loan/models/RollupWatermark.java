@@ -0,0 +1,25 @@
+package com.krunal.loan.models;
+
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.LocalDateTime;
+
+// Rows updated after the watermark have not been folded into the rollup named by id yet
+@Entity
+@Table(name = "rollup_watermarks")
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+public class RollupWatermark {
+    @Id
+    private String id;
+
+    private LocalDateTime watermark;
+}
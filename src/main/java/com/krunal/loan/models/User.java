@@ -53,6 +53,9 @@ public class User {
 	@Transient
 	private String base64Image;
 
+	@Transient
+	private String fileUrl;
+
 	@Transient
 	private String joinDate;
 
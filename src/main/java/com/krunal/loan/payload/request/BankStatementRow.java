@@ -0,0 +1,22 @@
+package com.krunal.loan.payload.request;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+// One receipt line of a bank statement, dates in yyyy-MM-dd or dd-MM-yyyy
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+@JsonIgnoreProperties(ignoreUnknown = true)
+public class BankStatementRow {
+    private String loanAccount;
+    private String dueDate;
+    private String amount;
+    private String receivedDate;
+    private String reference;
+    private String receiverName;
+}
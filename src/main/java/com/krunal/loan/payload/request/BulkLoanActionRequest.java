@@ -0,0 +1,18 @@
+package com.krunal.loan.payload.request;
+
+import jakarta.validation.constraints.NotEmpty;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.util.List;
+
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+public class BulkLoanActionRequest {
+    @NotEmpty
+    private List<Long> loanIds;
+}
@@ -1,6 +1,7 @@
 package com.krunal.loan.payload.request;
 
 import jakarta.validation.constraints.Positive;
+import jakarta.validation.constraints.PositiveOrZero;
 import lombok.AllArgsConstructor;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
@@ -14,10 +15,17 @@ public class EmiCalculationRequest {
     @Positive(message = "Loan amount must be greater than 0")
     private Double loanAmount;
 
-    @Positive(message = "Interest rate must be greater than 0")
+    @PositiveOrZero(message = "Interest rate must not be negative")
     private Double interestRate;
 
     @Positive(message = "Number of EMIs must be greater than 0")
     private Integer numberOfEmis;
 
+    // AmortizationMethod code, flat when not given
+    private Long amortizationMethod;
+
+    private Double stepUpRate;
+
+    private Integer stepUpEveryMonths;
+
 }
\ No newline at end of file
@@ -0,0 +1,34 @@
+package com.krunal.loan.payload.request;
+
+import com.krunal.loan.service.amortization.AmortizationTerms;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.NotEmpty;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.util.List;
+
+// Every combination of loan amount, interest rate and tenure is quoted
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+public class EmiQuoteGridRequest {
+    @NotEmpty(message = "Loan amounts are required")
+    private List<Double> loanAmounts;
+
+    @NotEmpty(message = "Interest rates are required")
+    private List<Double> interestRates;
+
+    @NotEmpty(message = "Tenures are required")
+    private List<@Max(value = AmortizationTerms.MAX_MONTHS, message = "Tenure must be at most " + AmortizationTerms.MAX_MONTHS + " months") Integer> tenures;
+
+    // AmortizationMethod code, flat when not given
+    private Long amortizationMethod;
+
+    private Double stepUpRate;
+
+    private Integer stepUpEveryMonths;
+}
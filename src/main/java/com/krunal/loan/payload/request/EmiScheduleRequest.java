@@ -1,5 +1,6 @@
 package com.krunal.loan.payload.request;
 
+import com.krunal.loan.models.Loan;
 import lombok.AllArgsConstructor;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
@@ -22,5 +23,23 @@ public class EmiScheduleRequest {
 
     private Long loanId;
 
+    private Long amortizationMethod;
+
+    private Double stepUpRate;
+
+    private Integer stepUpEveryMonths;
+
+    public static EmiScheduleRequest of(Loan loan) {
+        EmiScheduleRequest scheduleRequest = new EmiScheduleRequest();
+        scheduleRequest.setLoanId(loan.getId());
+        scheduleRequest.setLoanAmount(loan.getLoanAmount());
+        scheduleRequest.setInterestRate(loan.getInterestRate());
+        scheduleRequest.setNumberOfEmis(loan.getLoanDuration());
+        scheduleRequest.setFirstEmiDate(loan.getEmiStartDate());
+        scheduleRequest.setAmortizationMethod(loan.getAmortizationMethod());
+        scheduleRequest.setStepUpRate(loan.getStepUpRate());
+        scheduleRequest.setStepUpEveryMonths(loan.getStepUpEveryMonths());
+        return scheduleRequest;
+    }
 
 }
\ No newline at end of file
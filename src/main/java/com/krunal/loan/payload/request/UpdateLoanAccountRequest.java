@@ -3,6 +3,7 @@ import com.fasterxml.jackson.annotation.JsonFormat;
 import jakarta.persistence.Column;
 import jakarta.validation.constraints.NotNull;
 import jakarta.validation.constraints.Positive;
+import jakarta.validation.constraints.PositiveOrZero;
 import jakarta.validation.constraints.Size;
 import lombok.AllArgsConstructor;
 import lombok.Getter;
@@ -25,13 +26,10 @@ public class UpdateLoanAccountRequest {
     @Positive(message = "Loan amount must be positive")
     private Double loanAmount;
 
-    @Positive(message = "Interest rate must be positive")
+    // 0% is allowed, the EMIs then repay principal only
+    @PositiveOrZero(message = "Interest rate must not be negative")
     private Double interestRate;
 
-    @NotNull(message = "EMI per month is required")
-    @Positive(message = "EMI per month must be positive")
-    private Double emiPerMonth;
-
     @NotNull(message = "EMI start date is required")
     @JsonFormat(shape = JsonFormat.Shape.STRING, pattern = "dd-MM-yyyy")
     private String emiStartDate;
@@ -42,6 +40,13 @@ public class UpdateLoanAccountRequest {
 
     private Long paymentModeId;
 
+    // AmortizationMethod code, flat when not given
+    private Long amortizationMethod;
+
+    private Double stepUpRate;
+
+    private Integer stepUpEveryMonths;
+
     @NotNull(message = "Contributors are required")
     private List<ContributorRequest> contributors;
 }
\ No newline at end of file
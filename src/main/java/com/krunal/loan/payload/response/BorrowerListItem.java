@@ -0,0 +1,50 @@
+package com.krunal.loan.payload.response;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+import com.krunal.loan.models.BorrowerStatus;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.LocalDateTime;
+
+@Getter
+@Setter
+@NoArgsConstructor
+public class BorrowerListItem {
+    private Long borrowerId;
+    private String userAccount;
+    private String name;
+    private String fatherName;
+    private String email;
+    private String phoneNo;
+    private Long status;
+    private Long addUser;
+    private String addUserName;
+
+    @JsonFormat(shape = JsonFormat.Shape.STRING, pattern = "yyyy-MM-dd'T'HH:mm:ss.SSS'Z'")
+    private LocalDateTime addDate;
+
+    private Long noOfLoan;
+    private Double totalLoanAmount;
+
+    public BorrowerListItem(Long borrowerId, String userAccount, String name, String fatherName, String email, String phoneNo,
+                            Long status, Long addUser, LocalDateTime addDate, Long noOfLoan, Double totalLoanAmount) {
+        this.borrowerId = borrowerId;
+        this.userAccount = userAccount;
+        this.name = name;
+        this.fatherName = fatherName;
+        this.email = email;
+        this.phoneNo = phoneNo;
+        this.status = status;
+        this.addUser = addUser;
+        this.addDate = addDate;
+        this.noOfLoan = noOfLoan;
+        this.totalLoanAmount = totalLoanAmount;
+    }
+
+    public String getStatusName() {
+        BorrowerStatus borrowerStatus = BorrowerStatus.fromCode(this.status);
+        return (borrowerStatus != null) ? borrowerStatus.getDisplayName() : "Unknown";
+    }
+}
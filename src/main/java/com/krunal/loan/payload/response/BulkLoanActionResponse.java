@@ -0,0 +1,24 @@
+package com.krunal.loan.payload.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.util.List;
+
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+public class BulkLoanActionResponse {
+    private int requested;
+    private int succeeded;
+    private int failed;
+    private List<LoanActionResult> results;
+
+    public static BulkLoanActionResponse of(List<LoanActionResult> results) {
+        int succeeded = (int) results.stream().filter(LoanActionResult::isSuccess).count();
+        return new BulkLoanActionResponse(results.size(), succeeded, results.size() - succeeded, results);
+    }
+}
@@ -0,0 +1,25 @@
+package com.krunal.loan.payload.response;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+import com.krunal.loan.models.Emi;
+import lombok.*;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@ToString
+public class EmiPageResponse {
+    private List<Emi> emis;
+
+    // Cursor to pass back as lastEmiDate/lastEmiId for the next page, null when there are no more rows
+    @JsonFormat(shape = JsonFormat.Shape.STRING, pattern = "yyyy-MM-dd")
+    private LocalDate nextEmiDate;
+
+    private Long nextEmiId;
+
+    private boolean hasMore;
+}
@@ -0,0 +1,19 @@
+package com.krunal.loan.payload.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+public class EmiQuote {
+    private double loanAmount;
+    private double interestRate;
+    private int numberOfEmis;
+    private double loanEmi;
+    private double totalAmountPayable;
+    private double totalInterestPayable;
+}
@@ -0,0 +1,16 @@
+package com.krunal.loan.payload.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+public class LoanActionResult {
+    private Long loanId;
+    private boolean success;
+    private String message;
+}
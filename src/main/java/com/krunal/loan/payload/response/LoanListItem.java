@@ -0,0 +1,64 @@
+package com.krunal.loan.payload.response;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+import com.krunal.loan.models.LoanStatus;
+import com.krunal.loan.models.PaymentType;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+public class LoanListItem {
+    private static final DateTimeFormatter DMY_FORMATTER = DateTimeFormatter.ofPattern("dd-MM-yyyy");
+
+    private Long id;
+    private String loanAccount;
+    private Long borrowerId;
+    private String borrowerName;
+    private Double loanAmount;
+    private Double interestRate;
+    private Integer loanDuration;
+    private Double empPerMonth;
+
+    @JsonFormat(shape = JsonFormat.Shape.STRING, pattern = "yyyy-MM-dd")
+    private LocalDate emiStartDate;
+
+    private Long status;
+    private Long paymentModeId;
+
+    @JsonFormat(shape = JsonFormat.Shape.STRING, pattern = "yyyy-MM-dd HH:mm:ss", timezone = "Asia/Kolkata")
+    private LocalDateTime addDate;
+
+    // From the maintained repayment summary, null until the loan has a schedule
+    private Double receivedAmount;
+    private Double outstandingAmount;
+
+    @JsonFormat(shape = JsonFormat.Shape.STRING, pattern = "yyyy-MM-dd")
+    private LocalDate nextDueDate;
+
+    public String getBorrowerAcc() {
+        return borrowerId != null ? String.format("OD-%04d", borrowerId) : null;
+    }
+
+    public String getStatusName() {
+        LoanStatus loanStatus = LoanStatus.fromCode(this.status);
+        return (loanStatus != null) ? loanStatus.getDisplayName() : "Unknown";
+    }
+
+    public String getPaymentModeName() {
+        PaymentType type = PaymentType.fromCode(this.paymentModeId);
+        return (type != null) ? type.getDisplayName() : "Unknown";
+    }
+
+    public String getEmiStartDateString() {
+        return emiStartDate != null ? emiStartDate.format(DMY_FORMATTER) : null;
+    }
+}
@@ -0,0 +1,59 @@
+package com.krunal.loan.payload.response;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+import com.krunal.loan.common.MoneyUtils;
+import com.krunal.loan.models.PortfolioDailyRollup;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.LocalDate;
+
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+public class PortfolioSummaryResponse {
+    @JsonFormat(shape = JsonFormat.Shape.STRING, pattern = "yyyy-MM-dd")
+    private LocalDate startDate;
+
+    @JsonFormat(shape = JsonFormat.Shape.STRING, pattern = "yyyy-MM-dd")
+    private LocalDate endDate;
+
+    private long totalLoans;
+    private double totalLoanAmount;
+    private long activeLoans;
+    private double activeLoanAmount;
+    private long pendingLoans;
+    private double pendingLoanAmount;
+    private long rejectedLoans;
+    private double rejectedLoanAmount;
+    private long closedLoans;
+    private double closedLoanAmount;
+    private long newBorrowers;
+    private long emisDue;
+    private double emisDueAmount;
+    private long emisCollected;
+    private double emisCollectedAmount;
+    private long emisBounced;
+    private double emisBouncedAmount;
+
+    // Amounts are rounded to the paisa once, after summing the days
+    public static PortfolioSummaryResponse of(LocalDate startDate, LocalDate endDate, PortfolioDailyRollup totals) {
+        return new PortfolioSummaryResponse(startDate, endDate,
+                totals.getTotalLoans(), round(totals.getTotalLoanAmount()),
+                totals.getActiveLoans(), round(totals.getActiveLoanAmount()),
+                totals.getPendingLoans(), round(totals.getPendingLoanAmount()),
+                totals.getRejectedLoans(), round(totals.getRejectedLoanAmount()),
+                totals.getClosedLoans(), round(totals.getClosedLoanAmount()),
+                totals.getNewBorrowers(),
+                totals.getEmisDue(), round(totals.getEmisDueAmount()),
+                totals.getEmisCollected(), round(totals.getEmisCollectedAmount()),
+                totals.getEmisBounced(), round(totals.getEmisBouncedAmount()));
+    }
+
+    private static double round(double amount) {
+        return MoneyUtils.toRupees(MoneyUtils.toPaise(amount));
+    }
+}
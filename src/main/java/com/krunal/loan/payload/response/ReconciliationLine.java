@@ -0,0 +1,21 @@
+package com.krunal.loan.payload.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+public class ReconciliationLine {
+    private int lineNo;
+    private String loanAccount;
+    private String dueDate;
+    private Double amount;
+    private Long emiId;
+    private Double emiAmount;
+    private String status;
+    private String message;
+}
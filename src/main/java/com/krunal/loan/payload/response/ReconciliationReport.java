@@ -0,0 +1,53 @@
+package com.krunal.loan.payload.response;
+
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Getter
+@Setter
+@NoArgsConstructor
+public class ReconciliationReport {
+    public static final String POSTED = "POSTED";
+    public static final String MATCHED = "MATCHED";
+    public static final String AMOUNT_MISMATCH = "AMOUNT_MISMATCH";
+    public static final String ALREADY_PAID = "ALREADY_PAID";
+    public static final String DUPLICATE = "DUPLICATE";
+    public static final String UNMATCHED = "UNMATCHED";
+    public static final String INVALID = "INVALID";
+    public static final String CONFLICT = "CONFLICT";
+
+    private boolean dryRun;
+    private int totalRows;
+    private int posted;
+    private int matched;
+    private int amountMismatch;
+    private int alreadyPaid;
+    private int duplicate;
+    private int unmatched;
+    private int invalid;
+    private int conflict;
+    private double postedAmount;
+    private List<ReconciliationLine> lines = new ArrayList<>();
+
+    public void addLine(ReconciliationLine line) {
+        lines.add(line);
+        totalRows++;
+        switch (line.getStatus()) {
+            case POSTED -> {
+                posted++;
+                postedAmount += line.getAmount();
+            }
+            case MATCHED -> matched++;
+            case AMOUNT_MISMATCH -> amountMismatch++;
+            case ALREADY_PAID -> alreadyPaid++;
+            case DUPLICATE -> duplicate++;
+            case UNMATCHED -> unmatched++;
+            case CONFLICT -> conflict++;
+            default -> invalid++;
+        }
+    }
+}
@@ -0,0 +1,50 @@
+package com.krunal.loan.payload.response;
+
+import com.krunal.loan.models.UsersStatus;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.Date;
+
+@Getter
+@Setter
+@NoArgsConstructor
+public class UserListItem {
+    private static final DateTimeFormatter JOIN_DATE_FORMATTER = DateTimeFormatter.ofPattern("dd-MM-yyyy").withZone(ZoneId.systemDefault());
+
+    private Long id;
+    private String username;
+    private String name;
+    private String email;
+    private String phoneNo;
+    private Long status;
+    private String partnerId;
+    private Date addDate;
+    private Double investedAmount;
+    private Double netProfitAmount;
+    private Double totalAmount;
+    private Long noOfLoanInvested;
+
+    public UserListItem(Long id, String username, String name, String email, String phoneNo, Long status, String partnerId, Date addDate) {
+        this.id = id;
+        this.username = username;
+        this.name = name;
+        this.email = email;
+        this.phoneNo = phoneNo;
+        this.status = status;
+        this.partnerId = partnerId;
+        this.addDate = addDate;
+    }
+
+    public String getJoinDate() {
+        return addDate != null ? JOIN_DATE_FORMATTER.format(addDate.toInstant()) : null;
+    }
+
+    public String getStatusName() {
+        UsersStatus usersStatus = UsersStatus.fromCode(this.status);
+        return (usersStatus != null) ? usersStatus.getDisplayName() : "Unknown";
+    }
+}
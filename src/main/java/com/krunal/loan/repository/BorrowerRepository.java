@@ -1,6 +1,9 @@
 package com.krunal.loan.repository;
 
 import com.krunal.loan.models.Borrower;
+import com.krunal.loan.payload.response.BorrowerListItem;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
 import org.springframework.data.jpa.repository.Modifying;
@@ -10,6 +13,7 @@ import org.springframework.stereotype.Repository;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
+import java.util.Optional;
 
 @Repository
 public interface BorrowerRepository extends JpaRepository<Borrower, Long>, JpaSpecificationExecutor<Borrower> {
@@ -18,6 +22,21 @@ public interface BorrowerRepository extends JpaRepository<Borrower, Long>, JpaSp
     @Query("SELECT b FROM Borrower b WHERE (b.userAccount LIKE %:keyword% OR b.name LIKE %:keyword% OR b.fatherName LIKE %:keyword% OR b.email LIKE %:keyword% OR b.phoneNo LIKE %:keyword%) AND b.status != 0")
     List<Borrower> searchBorrowers(@Param("keyword") String keyword);
 
+    @Query(value = "SELECT new com.krunal.loan.payload.response.BorrowerListItem(b.borrowerId, b.userAccount, b.name, b.fatherName, " +
+            "b.email, b.phoneNo, b.status, b.addUser, b.addDate, COUNT(l), COALESCE(SUM(l.loanAmount), 0.0)) " +
+            "FROM Borrower b LEFT JOIN b.loans l " +
+            "GROUP BY b.borrowerId, b.userAccount, b.name, b.fatherName, b.email, b.phoneNo, b.status, b.addUser, b.addDate",
+            countQuery = "SELECT COUNT(b) FROM Borrower b")
+    Page<BorrowerListItem> findBorrowerListItems(Pageable pageable);
+
+    // Fetching both collections in one query would repeat every loan once per file row, so loans are read separately
+    @Query("SELECT DISTINCT b FROM Borrower b LEFT JOIN FETCH b.borrowersFiles WHERE b.borrowerId = :borrowerId")
+    Optional<Borrower> findByIdWithFiles(@Param("borrowerId") Long borrowerId);
+
+    // Initializes the loans of a borrower already loaded in the same persistence context
+    @Query("SELECT DISTINCT b FROM Borrower b LEFT JOIN FETCH b.loans WHERE b.borrowerId = :borrowerId")
+    Optional<Borrower> findByIdWithLoans(@Param("borrowerId") Long borrowerId);
+
     @Transactional
     @Modifying
     @Query("DELETE FROM BorrowersFile bf WHERE bf.borrower.borrowerId = :borrowerId")
@@ -0,0 +1,175 @@
+package com.krunal.loan.repository;
+
+import com.krunal.loan.models.Emi;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+// Emi ids are IDENTITY generated, which turns off Hibernate insert batching, so schedules are written through JDBC
+@Repository
+public class EmiJdbcRepository {
+    private static final Logger logger = LoggerFactory.getLogger(EmiJdbcRepository.class);
+    private static final String INSERT_EMI_SQL = "INSERT INTO emis (loan_id, emi_no, emi_date, emi_amount, emi_received_amount, " +
+            "remaining_amount, principal_amount, interest_amount, principal_balance, status, add_user, add_date, updated_date) " +
+            "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+    // Guarded on the current status so a payment posted concurrently is reported instead of overwritten
+    private static final String UPDATE_PAYMENT_SQL = "UPDATE emis SET emi_received_amount = ?, status = ?, payment_mode = ?, notes = ?, " +
+            "emi_received_date = ?, receiver_name = ?, updated_user = ?, updated_date = ? WHERE emi_id = ? AND status = ?";
+
+    // Outstanding part of each due EMI of a loan in the given status, read straight from the status/date index
+    private static final String DUE_AMOUNTS_SQL = "SELECT e.emi_date, e.emi_amount - e.emi_received_amount FROM emis e " +
+            "JOIN loans l ON l.id = e.loan_id WHERE e.status = ? AND e.emi_date BETWEEN ? AND ? AND l.status = ?";
+
+    // Payment columns of a set of EMIs, the IN list is appended per chunk
+    private static final String PAYMENT_STATE_SQL = "SELECT emi_id, status, emi_received_amount, updated_user FROM emis WHERE emi_id IN (";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final int batchSize;
+
+    public EmiJdbcRepository(JdbcTemplate jdbcTemplate, @Value("${loan.app.emiBatchSize:100}") int batchSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.batchSize = batchSize > 0 ? batchSize : 100;
+    }
+
+    // Inserts new schedule rows in JDBC batches, joining the caller's transaction
+    public void insertSchedule(List<Emi> emis) {
+        if (emis == null || emis.isEmpty()) {
+            return;
+        }
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        jdbcTemplate.batchUpdate(INSERT_EMI_SQL, emis, batchSize, (ps, emi) -> {
+            ps.setLong(1, emi.getLoanId());
+            ps.setInt(2, emi.getEmiNo());
+            if (emi.getEmiDate() != null) {
+                ps.setDate(3, Date.valueOf(emi.getEmiDate()));
+            } else {
+                ps.setNull(3, Types.DATE);
+            }
+            ps.setDouble(4, emi.getEmiAmount());
+            ps.setDouble(5, emi.getEmiReceivedAmount());
+            ps.setDouble(6, emi.getRemainingAmount());
+            ps.setObject(7, emi.getPrincipalAmount(), Types.DOUBLE);
+            ps.setObject(8, emi.getInterestAmount(), Types.DOUBLE);
+            ps.setObject(9, emi.getPrincipalBalance(), Types.DOUBLE);
+            ps.setLong(10, emi.getStatus());
+            ps.setLong(11, emi.getAddUser());
+            ps.setTimestamp(12, emi.getAddDate() != null ? Timestamp.valueOf(emi.getAddDate()) : now);
+            ps.setTimestamp(13, emi.getUpdatedDate() != null ? Timestamp.valueOf(emi.getUpdatedDate()) : now);
+        });
+        logger.debug("Inserted {} EMI rows in batches of {}", emis.size(), batchSize);
+    }
+
+    /**
+     * Streams the outstanding amount of every EMI in emiStatus due between from and to (inclusive) whose loan is
+     * in loanStatus. Rows are handed over one at a time without building entities.
+     */
+    public void streamDueAmounts(Long emiStatus, Long loanStatus, LocalDate from, LocalDate to, DueAmountHandler handler) {
+        jdbcTemplate.query(con -> {
+            PreparedStatement ps = con.prepareStatement(DUE_AMOUNTS_SQL, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            // MySQL Connector/J only streams rows instead of buffering the whole result set with this fetch size
+            ps.setFetchSize(Integer.MIN_VALUE);
+            ps.setLong(1, emiStatus);
+            ps.setDate(2, Date.valueOf(from));
+            ps.setDate(3, Date.valueOf(to));
+            ps.setLong(4, loanStatus);
+            return ps;
+        }, (RowCallbackHandler) rs -> handler.accept(rs.getDate(1).toLocalDate(), rs.getDouble(2)));
+    }
+
+    @FunctionalInterface
+    public interface DueAmountHandler {
+        void accept(LocalDate emiDate, double amount);
+    }
+
+    /**
+     * Applies payments in JDBC batches. Each Emi carries the new payment values, the update only matches rows
+     * still in expectedStatus. Returns the affected row count per payment in input order. Payments the driver
+     * reports as SUCCESS_NO_INFO are counted by re-reading their rows in the caller's transaction.
+     */
+    public int[] applyPayments(List<Emi> payments, Long expectedStatus) {
+        if (payments == null || payments.isEmpty()) {
+            return new int[0];
+        }
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        int[][] batchCounts = jdbcTemplate.batchUpdate(UPDATE_PAYMENT_SQL, payments, batchSize, (ps, emi) -> {
+            ps.setDouble(1, emi.getEmiReceivedAmount());
+            ps.setLong(2, emi.getStatus());
+            if (emi.getPaymentMode() != null) {
+                ps.setLong(3, emi.getPaymentMode());
+            } else {
+                ps.setNull(3, Types.BIGINT);
+            }
+            ps.setString(4, emi.getNotes());
+            if (emi.getEmiReceivedDate() != null) {
+                ps.setDate(5, Date.valueOf(emi.getEmiReceivedDate()));
+            } else {
+                ps.setNull(5, Types.DATE);
+            }
+            ps.setString(6, emi.getReceiverName());
+            ps.setLong(7, emi.getUpdatedUser());
+            ps.setTimestamp(8, now);
+            ps.setLong(9, emi.getEmiId());
+            ps.setLong(10, expectedStatus);
+        });
+
+        int[] counts = new int[payments.size()];
+        List<Integer> unknown = new ArrayList<>();
+        int index = 0;
+        for (int[] batch : batchCounts) {
+            for (int count : batch) {
+                // The driver may report SUCCESS_NO_INFO for rewritten batches, those rows are checked below
+                if (count == Statement.SUCCESS_NO_INFO) {
+                    unknown.add(index);
+                }
+                counts[index++] = count;
+            }
+        }
+        if (!unknown.isEmpty()) {
+            verifyApplied(payments, unknown, counts);
+        }
+        logger.debug("Applied {} EMI payments in batches of {}, {} verified by re-reading", payments.size(), batchSize, unknown.size());
+        return counts;
+    }
+
+    // A payment counts as applied when its row now holds the status, amount and user the update wrote
+    private void verifyApplied(List<Emi> payments, List<Integer> unknown, int[] counts) {
+        for (int from = 0; from < unknown.size(); from += batchSize) {
+            List<Integer> chunk = unknown.subList(from, Math.min(from + batchSize, unknown.size()));
+            Map<Long, PaymentState> rows = new HashMap<>();
+            jdbcTemplate.query(PAYMENT_STATE_SQL + String.join(", ", Collections.nCopies(chunk.size(), "?")) + ")",
+                    (RowCallbackHandler) rs -> rows.put(rs.getLong(1), new PaymentState(rs.getLong(2), rs.getDouble(3), rs.getLong(4))),
+                    chunk.stream().map(i -> payments.get(i).getEmiId()).toArray());
+            for (int i : chunk) {
+                Emi payment = payments.get(i);
+                PaymentState row = rows.get(payment.getEmiId());
+                boolean applied = row != null
+                        && Objects.equals(row.status(), payment.getStatus())
+                        && Math.abs(row.receivedAmount() - payment.getEmiReceivedAmount()) < 0.005
+                        && Objects.equals(row.updatedUser(), payment.getUpdatedUser());
+                counts[i] = applied ? 1 : 0;
+            }
+        }
+    }
+
+    private record PaymentState(Long status, double receivedAmount, Long updatedUser) {
+    }
+}
@@ -1,12 +1,14 @@
 package com.krunal.loan.repository;
 
 import com.krunal.loan.models.Emi;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
 
 @Repository
@@ -19,6 +21,31 @@ public interface EmiRepository extends JpaRepository<Emi, Long> {
 
     List<Emi> findByLoanIdOrderByEmiDateAsc(Long loanId);
 
-    @Query(value = "SELECT SUM(emi_received_amount) as receivedAmount, COUNT(*) as receivedEmis FROM emis WHERE status = 1 AND loan_id = :loanId", nativeQuery = true)
-    List<Object[]> findEmiSummaryByLoanId(@Param("loanId") Long loanId);
+    // Each row is [emiId, loanId, emiDate, emiAmount, status]
+    @Query("SELECT e.emiId, e.loanId, e.emiDate, e.emiAmount, e.status FROM Emi e WHERE e.loanId IN :loanIds")
+    List<Object[]> findEmiKeysByLoanIds(@Param("loanIds") Collection<Long> loanIds);
+
+    // Range scans on idx_emis_status_emi_date, ordered by (emi_date, emi_id) so they can be used as keyset cursors
+    @Query("SELECT e FROM Emi e WHERE e.status = :status AND e.emiDate BETWEEN :startDate AND :endDate ORDER BY e.emiDate ASC, e.emiId ASC")
+    List<Emi> findByStatusAndEmiDateBetweenAsc(@Param("status") Long status, @Param("startDate") LocalDate startDate, @Param("endDate") LocalDate endDate);
+
+    @Query("SELECT e FROM Emi e WHERE e.status = :status AND e.emiDate BETWEEN :startDate AND :endDate ORDER BY e.emiDate DESC, e.emiId DESC")
+    List<Emi> findByStatusAndEmiDateBetweenDesc(@Param("status") Long status, @Param("startDate") LocalDate startDate, @Param("endDate") LocalDate endDate);
+
+    @Query("SELECT e FROM Emi e WHERE e.status = :status AND e.emiDate BETWEEN :startDate AND :endDate " +
+            "AND (e.emiDate > :lastEmiDate OR (e.emiDate = :lastEmiDate AND e.emiId > :lastEmiId)) " +
+            "ORDER BY e.emiDate ASC, e.emiId ASC")
+    List<Emi> findNextByStatusAndEmiDateAsc(@Param("status") Long status, @Param("startDate") LocalDate startDate, @Param("endDate") LocalDate endDate,
+                                            @Param("lastEmiDate") LocalDate lastEmiDate, @Param("lastEmiId") Long lastEmiId, Pageable pageable);
+
+    @Query("SELECT e FROM Emi e WHERE e.status = :status AND e.emiDate BETWEEN :startDate AND :endDate " +
+            "AND (e.emiDate < :lastEmiDate OR (e.emiDate = :lastEmiDate AND e.emiId < :lastEmiId)) " +
+            "ORDER BY e.emiDate DESC, e.emiId DESC")
+    List<Emi> findNextByStatusAndEmiDateDesc(@Param("status") Long status, @Param("startDate") LocalDate startDate, @Param("endDate") LocalDate endDate,
+                                             @Param("lastEmiDate") LocalDate lastEmiDate, @Param("lastEmiId") Long lastEmiId, Pageable pageable);
+
+    // Dashboard top-N feeds, each one bounded index scan per status
+    List<Emi> findTop12ByStatusOrderByEmiDateAscEmiIdAsc(Long status);
+
+    List<Emi> findTop12ByStatusOrderByUpdatedDateDesc(Long status);
 }
@@ -6,6 +6,7 @@ import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 
 @Repository
@@ -20,4 +21,10 @@ public interface LoanContributorRepository extends JpaRepository<LoanContributor
     @Query(value = "SELECT SUM(lc.contributor_amount) as investedAmount, SUM(lc.expected_profit) as netProfitAmount, COUNT(*) as noOfLoans FROM loan_contributor lc JOIN loans l ON lc.loan_Id = l.id WHERE l.status != 3 AND lc.contributor_id = :contributorId", nativeQuery = true)
     List<Object[]> findContributorSummaryByContributorId(@Param("contributorId") Long contributorId);
 
+    @Query(value = "SELECT lc.contributor_id as contributorId, SUM(lc.contributor_amount) as investedAmount, SUM(lc.expected_profit) as netProfitAmount, COUNT(*) as noOfLoans FROM loan_contributor lc JOIN loans l ON lc.loan_Id = l.id WHERE l.status != 3 GROUP BY lc.contributor_id", nativeQuery = true)
+    List<Object[]> findContributorSummaries();
+
+    @Query(value = "SELECT lc.contributor_id as contributorId, SUM(lc.contributor_amount) as investedAmount, SUM(lc.expected_profit) as netProfitAmount, COUNT(*) as noOfLoans FROM loan_contributor lc JOIN loans l ON lc.loan_Id = l.id WHERE l.status != 3 AND lc.contributor_id IN (:contributorIds) GROUP BY lc.contributor_id", nativeQuery = true)
+    List<Object[]> findContributorSummariesByContributorIds(@Param("contributorIds") Collection<Long> contributorIds);
+
 }
@@ -0,0 +1,30 @@
+package com.krunal.loan.repository;
+
+import com.krunal.loan.models.LoanRepaymentSummary;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Collection;
+
+@Repository
+public interface LoanRepaymentSummaryRepository extends JpaRepository<LoanRepaymentSummary, Long> {
+    // Recomputes the summaries of the given loans from their EMIs in one upsert, joining the caller's transaction.
+    // The GROUP BY sits in a derived table because MySQL does not allow it directly in INSERT ... SELECT ... ON DUPLICATE KEY UPDATE
+    @Modifying
+    @Transactional
+    @Query(value = "INSERT INTO loan_repayment_summaries (loan_id, total_amount, received_amount, received_emis, outstanding_amount, next_due_date, updated_date) " +
+            "SELECT s.loan_id, s.total_amount, s.received_amount, s.received_emis, ROUND(s.total_amount - s.received_amount, 2), s.next_due_date, NOW() " +
+            "FROM (SELECT loan_id, ROUND(SUM(emi_amount), 2) AS total_amount, " +
+            "ROUND(COALESCE(SUM(CASE WHEN status = 1 THEN emi_received_amount END), 0), 2) AS received_amount, " +
+            "SUM(CASE WHEN status = 1 THEN 1 ELSE 0 END) AS received_emis, " +
+            "MIN(CASE WHEN status IN (2, 3) THEN emi_date END) AS next_due_date " +
+            "FROM emis WHERE loan_id IN (:loanIds) GROUP BY loan_id) s " +
+            "ON DUPLICATE KEY UPDATE total_amount = s.total_amount, received_amount = s.received_amount, received_emis = s.received_emis, " +
+            "outstanding_amount = ROUND(s.total_amount - s.received_amount, 2), next_due_date = s.next_due_date, updated_date = NOW()",
+            nativeQuery = true)
+    int refreshByLoanIds(@Param("loanIds") Collection<Long> loanIds);
+}
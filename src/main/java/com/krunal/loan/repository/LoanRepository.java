@@ -1,6 +1,9 @@
 package com.krunal.loan.repository;
 
 import com.krunal.loan.models.Loan;
+import com.krunal.loan.payload.response.LoanListItem;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
 import org.springframework.data.jpa.repository.Modifying;
@@ -9,18 +12,56 @@ import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 
 @Repository
 public interface LoanRepository extends JpaRepository<Loan, Long>, JpaSpecificationExecutor<Loan> {
+    // Bulk updates skip @UpdateTimestamp, updatedDate is set explicitly so the portfolio rollup sees the change
     @Modifying
     @Transactional
-    @Query("UPDATE Loan l SET l.status = :status, l.updatedUser = :updatedUser WHERE l.id = :loanId")
+    @Query("UPDATE Loan l SET l.status = :status, l.updatedUser = :updatedUser, l.updatedDate = LOCAL DATETIME WHERE l.id = :loanId")
     void updateStatusByLoanId(@Param("loanId") Long loanId, @Param("status") Long status, @Param("updatedUser") Long updatedUser);
 
+    // Only moves loans still in currentStatus, the returned count tells the caller whether another request got there first
+    @Modifying
+    @Query("UPDATE Loan l SET l.status = :status, l.updatedUser = :updatedUser, l.updatedDate = LOCAL DATETIME " +
+            "WHERE l.id IN :loanIds AND l.status = :currentStatus")
+    int updateStatusByLoanIds(@Param("loanIds") Collection<Long> loanIds, @Param("currentStatus") Long currentStatus,
+                              @Param("status") Long status, @Param("updatedUser") Long updatedUser);
+
+    // Also guarded on updatedDate, so a loan edited after it was read is not moved on with terms from before the edit
+    @Modifying
+    @Query("UPDATE Loan l SET l.status = :status, l.updatedUser = :updatedUser, l.updatedDate = LOCAL DATETIME " +
+            "WHERE l.id = :loanId AND l.status = :currentStatus " +
+            "AND (l.updatedDate = :readUpdatedDate OR (l.updatedDate IS NULL AND :readUpdatedDate IS NULL))")
+    int updateStatusIfUnchanged(@Param("loanId") Long loanId, @Param("currentStatus") Long currentStatus,
+                                @Param("readUpdatedDate") LocalDateTime readUpdatedDate,
+                                @Param("status") Long status, @Param("updatedUser") Long updatedUser);
+
     List<Loan> findByStatusOrderByIdDesc(Long status);
 
-    @Query("SELECT l FROM Loan l WHERE YEAR(l.addDate) = :year AND MONTH(l.addDate) = :month ")
-    List<Loan> findByMonth(@Param("year") int year, @Param("month") int month);
+    @Query(value = "SELECT new com.krunal.loan.payload.response.LoanListItem(l.id, l.loanAccount, l.borrowerId, b.name, l.loanAmount, " +
+            "l.interestRate, l.loanDuration, l.empPerMonth, l.emiStartDate, l.status, l.paymentModeId, l.addDate, " +
+            "s.receivedAmount, s.outstandingAmount, s.nextDueDate) " +
+            "FROM Loan l LEFT JOIN l.borrower b LEFT JOIN LoanRepaymentSummary s ON s.loanId = l.id",
+            countQuery = "SELECT COUNT(l) FROM Loan l")
+    Page<LoanListItem> findLoanListItems(Pageable pageable);
+
+    @Query(value = "SELECT new com.krunal.loan.payload.response.LoanListItem(l.id, l.loanAccount, l.borrowerId, b.name, l.loanAmount, " +
+            "l.interestRate, l.loanDuration, l.empPerMonth, l.emiStartDate, l.status, l.paymentModeId, l.addDate, " +
+            "s.receivedAmount, s.outstandingAmount, s.nextDueDate) " +
+            "FROM Loan l LEFT JOIN l.borrower b LEFT JOIN LoanRepaymentSummary s ON s.loanId = l.id WHERE l.status = :status",
+            countQuery = "SELECT COUNT(l) FROM Loan l WHERE l.status = :status")
+    Page<LoanListItem> findLoanListItemsByStatus(@Param("status") Long status, Pageable pageable);
+
+    // Each row is [Loan, borrowerName]
+    @Query("SELECT l, b.name FROM Loan l LEFT JOIN l.borrower b ORDER BY l.id DESC")
+    List<Object[]> findRecentWithBorrowerName(Pageable pageable);
+
+    // Each row is [loanId, loanAccount, loanDuration]
+    @Query("SELECT l.id, l.loanAccount, l.loanDuration FROM Loan l WHERE l.id IN :loanIds")
+    List<Object[]> findLoanAccountsByIds(@Param("loanIds") Collection<Long> loanIds);
 
 }
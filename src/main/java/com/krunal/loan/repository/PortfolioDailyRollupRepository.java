@@ -0,0 +1,13 @@
+package com.krunal.loan.repository;
+
+import com.krunal.loan.models.PortfolioDailyRollup;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@Repository
+public interface PortfolioDailyRollupRepository extends JpaRepository<PortfolioDailyRollup, LocalDate> {
+    List<PortfolioDailyRollup> findByRollupDateBetween(LocalDate fromDate, LocalDate toDate);
+}
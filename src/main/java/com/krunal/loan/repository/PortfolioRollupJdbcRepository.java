@@ -0,0 +1,159 @@
+package com.krunal.loan.repository;
+
+import com.krunal.loan.models.PortfolioDailyRollup;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+// Reads the raw tables grouped per day for the portfolio rollup and writes the rollup rows in JDBC batches
+@Repository
+public class PortfolioRollupJdbcRepository {
+    private static final Logger logger = LoggerFactory.getLogger(PortfolioRollupJdbcRepository.class);
+
+    // Days whose figures may have changed, each read from an updated_date index
+    private static final String CHANGED_LOAN_DAYS_SQL = "SELECT DISTINCT DATE(add_date) FROM loans WHERE updated_date > ?";
+    private static final String CHANGED_BORROWER_DAYS_SQL = "SELECT DISTINCT DATE(add_date) FROM borrowers WHERE updated_date > ?";
+    private static final String CHANGED_EMI_DAYS_SQL = "SELECT DISTINCT emi_date, emi_received_date FROM emis WHERE updated_date > ?";
+    private static final String ALL_LOAN_DAYS_SQL = "SELECT DISTINCT DATE(add_date) FROM loans";
+    private static final String ALL_BORROWER_DAYS_SQL = "SELECT DISTINCT DATE(add_date) FROM borrowers";
+    private static final String ALL_EMI_DAYS_SQL = "SELECT DISTINCT emi_date, emi_received_date FROM emis";
+    private static final String ROLLUP_DAYS_SQL = "SELECT rollup_date FROM portfolio_daily_rollups";
+
+    private static final String LOANS_BY_DAY_SQL = "SELECT DATE(add_date), status, COUNT(*), COALESCE(SUM(loan_amount), 0) FROM loans " +
+            "WHERE add_date >= ? AND add_date < ? GROUP BY DATE(add_date), status";
+    private static final String BORROWERS_BY_DAY_SQL = "SELECT DATE(add_date), COUNT(*) FROM borrowers " +
+            "WHERE add_date >= ? AND add_date < ? GROUP BY DATE(add_date)";
+    private static final String EMIS_DUE_BY_DAY_SQL = "SELECT emi_date, COUNT(*), COALESCE(SUM(emi_amount), 0) FROM emis " +
+            "WHERE emi_date BETWEEN ? AND ? AND status <> 4 GROUP BY emi_date";
+    private static final String EMIS_COLLECTED_BY_DAY_SQL = "SELECT emi_received_date, COUNT(*), COALESCE(SUM(emi_received_amount), 0) FROM emis " +
+            "WHERE emi_received_date BETWEEN ? AND ? AND status = 1 GROUP BY emi_received_date";
+    private static final String EMIS_BOUNCED_BY_DAY_SQL = "SELECT emi_date, COUNT(*), COALESCE(SUM(emi_amount), 0) FROM emis " +
+            "WHERE emi_date BETWEEN ? AND ? AND status = 3 GROUP BY emi_date";
+
+    private static final String DELETE_ROLLUP_SQL = "DELETE FROM portfolio_daily_rollups WHERE rollup_date = ?";
+    private static final String INSERT_ROLLUP_SQL = "INSERT INTO portfolio_daily_rollups (rollup_date, total_loans, total_loan_amount, " +
+            "active_loans, active_loan_amount, pending_loans, pending_loan_amount, rejected_loans, rejected_loan_amount, " +
+            "closed_loans, closed_loan_amount, new_borrowers, emis_due, emis_due_amount, emis_collected, emis_collected_amount, " +
+            "emis_bounced, emis_bounced_amount, updated_date) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final int batchSize;
+
+    public PortfolioRollupJdbcRepository(JdbcTemplate jdbcTemplate, @Value("${loan.app.emiBatchSize:100}") int batchSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.batchSize = batchSize > 0 ? batchSize : 100;
+    }
+
+    /**
+     * Days touched by loans, borrowers or EMIs updated after since. A null since returns every day that has
+     * data or an existing rollup row, which rebuilds the whole rollup.
+     */
+    public Set<LocalDate> findChangedDays(LocalDateTime since) {
+        Set<LocalDate> days = new HashSet<>();
+        RowCallbackHandler singleDay = rs -> addDay(days, rs.getDate(1));
+        RowCallbackHandler emiDays = rs -> {
+            addDay(days, rs.getDate(1));
+            addDay(days, rs.getDate(2));
+        };
+        if (since == null) {
+            jdbcTemplate.query(ALL_LOAN_DAYS_SQL, singleDay);
+            jdbcTemplate.query(ALL_BORROWER_DAYS_SQL, singleDay);
+            jdbcTemplate.query(ALL_EMI_DAYS_SQL, emiDays);
+            // Days left with no data at all, e.g. after a loan was deleted
+            jdbcTemplate.query(ROLLUP_DAYS_SQL, singleDay);
+        } else {
+            Timestamp sinceTimestamp = Timestamp.valueOf(since);
+            jdbcTemplate.query(CHANGED_LOAN_DAYS_SQL, singleDay, sinceTimestamp);
+            jdbcTemplate.query(CHANGED_BORROWER_DAYS_SQL, singleDay, sinceTimestamp);
+            jdbcTemplate.query(CHANGED_EMI_DAYS_SQL, emiDays, sinceTimestamp);
+        }
+        return days;
+    }
+
+    // Recomputes every day between from and to (inclusive) from the raw tables, days without data come back empty
+    public Map<LocalDate, PortfolioDailyRollup> aggregate(LocalDate from, LocalDate to) {
+        Map<LocalDate, PortfolioDailyRollup> rollups = new TreeMap<>();
+        for (LocalDate day = from; !day.isAfter(to); day = day.plusDays(1)) {
+            rollups.put(day, new PortfolioDailyRollup(day));
+        }
+        Timestamp fromTimestamp = Timestamp.valueOf(from.atStartOfDay());
+        Timestamp toTimestamp = Timestamp.valueOf(to.plusDays(1).atStartOfDay());
+        Date fromDate = Date.valueOf(from);
+        Date toDate = Date.valueOf(to);
+
+        jdbcTemplate.query(LOANS_BY_DAY_SQL, (RowCallbackHandler) rs -> rollups.get(rs.getDate(1).toLocalDate())
+                .addLoans(rs.getLong(2), rs.getLong(3), rs.getDouble(4)), fromTimestamp, toTimestamp);
+        jdbcTemplate.query(BORROWERS_BY_DAY_SQL, (RowCallbackHandler) rs -> rollups.get(rs.getDate(1).toLocalDate())
+                .setNewBorrowers(rs.getLong(2)), fromTimestamp, toTimestamp);
+        jdbcTemplate.query(EMIS_DUE_BY_DAY_SQL, (RowCallbackHandler) rs -> {
+            PortfolioDailyRollup rollup = rollups.get(rs.getDate(1).toLocalDate());
+            rollup.setEmisDue(rs.getLong(2));
+            rollup.setEmisDueAmount(rs.getDouble(3));
+        }, fromDate, toDate);
+        jdbcTemplate.query(EMIS_COLLECTED_BY_DAY_SQL, (RowCallbackHandler) rs -> {
+            PortfolioDailyRollup rollup = rollups.get(rs.getDate(1).toLocalDate());
+            rollup.setEmisCollected(rs.getLong(2));
+            rollup.setEmisCollectedAmount(rs.getDouble(3));
+        }, fromDate, toDate);
+        jdbcTemplate.query(EMIS_BOUNCED_BY_DAY_SQL, (RowCallbackHandler) rs -> {
+            PortfolioDailyRollup rollup = rollups.get(rs.getDate(1).toLocalDate());
+            rollup.setEmisBounced(rs.getLong(2));
+            rollup.setEmisBouncedAmount(rs.getDouble(3));
+        }, fromDate, toDate);
+        return rollups;
+    }
+
+    // Replaces the rows of the given days in one transaction, readers never see a day half written
+    @Transactional
+    public void replaceDays(Collection<PortfolioDailyRollup> rollups) {
+        if (rollups == null || rollups.isEmpty()) {
+            return;
+        }
+        List<PortfolioDailyRollup> rows = List.copyOf(rollups);
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        jdbcTemplate.batchUpdate(DELETE_ROLLUP_SQL, rows, batchSize, (ps, rollup) -> ps.setDate(1, Date.valueOf(rollup.getRollupDate())));
+        jdbcTemplate.batchUpdate(INSERT_ROLLUP_SQL, rows, batchSize, (ps, rollup) -> {
+            ps.setDate(1, Date.valueOf(rollup.getRollupDate()));
+            ps.setLong(2, rollup.getTotalLoans());
+            ps.setDouble(3, rollup.getTotalLoanAmount());
+            ps.setLong(4, rollup.getActiveLoans());
+            ps.setDouble(5, rollup.getActiveLoanAmount());
+            ps.setLong(6, rollup.getPendingLoans());
+            ps.setDouble(7, rollup.getPendingLoanAmount());
+            ps.setLong(8, rollup.getRejectedLoans());
+            ps.setDouble(9, rollup.getRejectedLoanAmount());
+            ps.setLong(10, rollup.getClosedLoans());
+            ps.setDouble(11, rollup.getClosedLoanAmount());
+            ps.setLong(12, rollup.getNewBorrowers());
+            ps.setLong(13, rollup.getEmisDue());
+            ps.setDouble(14, rollup.getEmisDueAmount());
+            ps.setLong(15, rollup.getEmisCollected());
+            ps.setDouble(16, rollup.getEmisCollectedAmount());
+            ps.setLong(17, rollup.getEmisBounced());
+            ps.setDouble(18, rollup.getEmisBouncedAmount());
+            ps.setTimestamp(19, now);
+        });
+        logger.debug("Replaced {} portfolio rollup days", rows.size());
+    }
+
+    private static void addDay(Set<LocalDate> days, Date date) {
+        if (date != null) {
+            days.add(date.toLocalDate());
+        }
+    }
+}
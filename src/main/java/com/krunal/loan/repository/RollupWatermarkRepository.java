@@ -0,0 +1,9 @@
+package com.krunal.loan.repository;
+
+import com.krunal.loan.models.RollupWatermark;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface RollupWatermarkRepository extends JpaRepository<RollupWatermark, String> {
+}
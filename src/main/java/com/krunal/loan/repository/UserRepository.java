@@ -1,6 +1,9 @@
 package com.krunal.loan.repository;
 
 import com.krunal.loan.models.User;
+import com.krunal.loan.payload.response.UserListItem;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
@@ -17,6 +20,10 @@ public interface UserRepository extends JpaRepository<User, Long> {
 
   Boolean existsByEmail(String email);
 
+  @Query(value = "SELECT new com.krunal.loan.payload.response.UserListItem(u.id, u.username, u.name, u.email, u.phoneNo, u.status, u.partnerId, u.addDate) FROM User u",
+          countQuery = "SELECT COUNT(u) FROM User u")
+  Page<UserListItem> findUserListItems(Pageable pageable);
+
   @Modifying
   @Transactional
   @Query("UPDATE User u SET u.partnerId = :partnerId WHERE u.id = :id")
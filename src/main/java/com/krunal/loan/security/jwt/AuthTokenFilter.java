@@ -1,6 +1,7 @@
 package com.krunal.loan.security.jwt;
 
-import com.krunal.loan.security.services.UserDetailsServiceImpl;
+import com.krunal.loan.security.services.UserDetailsCache;
+import io.jsonwebtoken.Claims;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -22,7 +23,7 @@ public class AuthTokenFilter extends OncePerRequestFilter {
   private JwtUtils jwtUtils;
 
   @Autowired
-  private UserDetailsServiceImpl userDetailsService;
+  private UserDetailsCache userDetailsCache;
 
   private static final Logger authLogger = LoggerFactory.getLogger(AuthTokenFilter.class);
 
@@ -31,10 +32,11 @@ public class AuthTokenFilter extends OncePerRequestFilter {
           throws ServletException, IOException {
     try {
       String jwt = parseJwt(request);
-      if (jwt != null && jwtUtils.validateJwtToken(jwt)) {
-        String username = jwtUtils.getUserNameFromJwtToken(jwt);
+      Claims claims = jwt != null ? jwtUtils.getClaimsFromJwtToken(jwt) : null;
+      if (claims != null) {
+        String username = claims.getSubject();
 
-        UserDetails userDetails = userDetailsService.loadUserByUsername(username);
+        UserDetails userDetails = userDetailsCache.getUserDetails(username);
         UsernamePasswordAuthenticationToken authentication = new UsernamePasswordAuthenticationToken(userDetails, null,
                 userDetails.getAuthorities());
         authentication.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
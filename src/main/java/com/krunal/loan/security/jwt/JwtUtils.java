@@ -1,8 +1,9 @@
 package com.krunal.loan.security.jwt;
 
-import com.krunal.loan.repository.BlacklistedTokenRepository;
 import com.krunal.loan.security.services.UserDetailsImpl;
+import io.jsonwebtoken.Claims;
 import io.jsonwebtoken.ExpiredJwtException;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.MalformedJwtException;
 import io.jsonwebtoken.SignatureAlgorithm;
@@ -32,16 +33,19 @@ public class JwtUtils {
     private int jwtExpirationMs;
 
     private SecretKey key;
+    private JwtParser jwtParser;
 
     @PostConstruct
     public void init() {
         key = Keys.secretKeyFor(SignatureAlgorithm.HS512);
+        // The parser is immutable and thread-safe, build it once instead of per request
+        jwtParser = Jwts.parserBuilder().setSigningKey(key).build();
     }
 
-    private final BlacklistedTokenRepository blacklistedTokenRepository;
+    private final TokenBlacklist tokenBlacklist;
 
-    public JwtUtils(BlacklistedTokenRepository blacklistedTokenRepository) {
-        this.blacklistedTokenRepository = blacklistedTokenRepository;
+    public JwtUtils(TokenBlacklist tokenBlacklist) {
+        this.tokenBlacklist = tokenBlacklist;
     }
 
     public String generateJwtToken(UserDetailsImpl userPrincipal) {
@@ -58,21 +62,24 @@ public class JwtUtils {
     }
 
     public String getUserNameFromJwtToken(String token) {
-        return Jwts.parserBuilder()
-                .setSigningKey(key)
-                .build()
-                .parseClaimsJws(token)
+        return jwtParser.parseClaimsJws(token)
                 .getBody()
                 .getSubject();
     }
 
     public boolean validateJwtToken(String authToken) {
+        return getClaimsFromJwtToken(authToken) != null;
+    }
+
+    /**
+     * Verifies the token once and returns its claims, or null when the token is revoked or invalid.
+     */
+    public Claims getClaimsFromJwtToken(String authToken) {
         try {
-            if (blacklistedTokenRepository.existsByToken(authToken)) {
-                return false; // Token is blacklisted
+            if (tokenBlacklist.isRevoked(authToken)) {
+                return null; // Token is blacklisted
             }
-            Jwts.parserBuilder().setSigningKey(key).build().parseClaimsJws(authToken);
-            return true;
+            return jwtParser.parseClaimsJws(authToken).getBody();
         } catch (SignatureException e) {
             logger.error("Invalid JWT signature: {}", e.getMessage());
         } catch (MalformedJwtException e) {
@@ -85,7 +92,14 @@ public class JwtUtils {
             logger.error("JWT claims string is empty: {}", e.getMessage());
         }
 
-        return false;
+        return null;
+    }
+
+    public void revokeToken(String authToken) {
+        Claims claims = getClaimsFromJwtToken(authToken);
+        if (claims != null && claims.getExpiration() != null) {
+            tokenBlacklist.revoke(authToken, claims.getExpiration().getTime());
+        }
     }
 
     public UserDetailsImpl getLoggedInUserDetails() {
@@ -0,0 +1,62 @@
+package com.krunal.loan.security.jwt;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Revoked access tokens kept in memory as SHA-256 hashes until the token itself would have expired.
+ */
+@Component
+public class TokenBlacklist {
+
+    private static final Logger logger = LoggerFactory.getLogger(TokenBlacklist.class);
+    private final Map<String, Long> revokedTokens = new ConcurrentHashMap<>();
+
+    public void revoke(String token, long expiresAtMillis) {
+        if (expiresAtMillis <= System.currentTimeMillis()) {
+            return;
+        }
+        revokedTokens.put(hash(token), expiresAtMillis);
+        purgeExpired();
+        logger.debug("Token revoked, {} revoked tokens held", revokedTokens.size());
+    }
+
+    public boolean isRevoked(String token) {
+        if (revokedTokens.isEmpty()) {
+            return false;
+        }
+        String tokenHash = hash(token);
+        Long expiresAt = revokedTokens.get(tokenHash);
+        if (expiresAt == null) {
+            return false;
+        }
+        if (expiresAt <= System.currentTimeMillis()) {
+            // The token has expired on its own and is rejected by the parser anyway
+            revokedTokens.remove(tokenHash);
+            return false;
+        }
+        return true;
+    }
+
+    private void purgeExpired() {
+        long now = System.currentTimeMillis();
+        revokedTokens.values().removeIf(expiresAt -> expiresAt <= now);
+    }
+
+    private static String hash(String token) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(token.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+}
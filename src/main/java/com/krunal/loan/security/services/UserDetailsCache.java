@@ -0,0 +1,42 @@
+package com.krunal.loan.security.services;
+
+import com.krunal.loan.common.LruCache;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.stereotype.Component;
+
+@Component
+public class UserDetailsCache {
+
+    private static final Logger logger = LoggerFactory.getLogger(UserDetailsCache.class);
+    private final UserDetailsServiceImpl userDetailsService;
+    private final LruCache<String, UserDetails> userDetails;
+
+    public UserDetailsCache(UserDetailsServiceImpl userDetailsService,
+                            @Value("${loan.app.userDetailsCache.maxEntries:500}") int maxEntries,
+                            @Value("${loan.app.userDetailsCache.ttlMs:60000}") long ttlMs) {
+        this.userDetailsService = userDetailsService;
+        this.userDetails = new LruCache<>(maxEntries, ttlMs);
+    }
+
+    /**
+     * Returns the cached user details, loading user and roles from the database only on a miss or after the TTL.
+     */
+    public UserDetails getUserDetails(String username) {
+        UserDetails details = userDetails.get(username);
+        if (details == null) {
+            logger.debug("Loading user details for {} from the database", username);
+            details = userDetailsService.loadUserByUsername(username);
+            userDetails.put(username, details);
+        }
+        return details;
+    }
+
+    public void evict(String username) {
+        if (username != null) {
+            userDetails.evict(username);
+        }
+    }
+}
@@ -0,0 +1,29 @@
+package com.krunal.loan.service.amortization;
+
+import com.krunal.loan.models.AmortizationMethod;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+@Component
+public class AmortizationEngine {
+    private static final Logger logger = LoggerFactory.getLogger(AmortizationEngine.class);
+    private final Map<AmortizationMethod, AmortizationStrategy> strategies = new EnumMap<>(AmortizationMethod.class);
+
+    public AmortizationEngine(List<AmortizationStrategy> strategies) {
+        strategies.forEach(strategy -> this.strategies.put(strategy.method(), strategy));
+    }
+
+    public AmortizationSchedule build(AmortizationTerms terms) {
+        AmortizationStrategy strategy = strategies.get(terms.method());
+        if (strategy == null) {
+            throw new IllegalArgumentException("Unsupported amortization method: " + terms.method());
+        }
+        logger.debug("Building {} schedule for {} months", terms.method(), terms.months());
+        return strategy.build(terms);
+    }
+}
@@ -0,0 +1,61 @@
+package com.krunal.loan.service.amortization;
+
+/**
+ * Per instalment amounts in paise, index 0 is the first EMI. balance is the principal outstanding after the EMI.
+ */
+public final class AmortizationSchedule {
+    private final long[] instalment;
+    private final long[] principal;
+    private final long[] interest;
+    private final long[] balance;
+
+    AmortizationSchedule(int months) {
+        this.instalment = new long[months];
+        this.principal = new long[months];
+        this.interest = new long[months];
+        this.balance = new long[months];
+    }
+
+    void set(int index, long principalPaise, long interestPaise, long balancePaise) {
+        principal[index] = principalPaise;
+        interest[index] = interestPaise;
+        instalment[index] = principalPaise + interestPaise;
+        balance[index] = balancePaise;
+    }
+
+    public int size() {
+        return instalment.length;
+    }
+
+    public long instalment(int index) {
+        return instalment[index];
+    }
+
+    public long principal(int index) {
+        return principal[index];
+    }
+
+    public long interest(int index) {
+        return interest[index];
+    }
+
+    public long balance(int index) {
+        return balance[index];
+    }
+
+    public long totalInstalments() {
+        long total = 0;
+        for (long amount : instalment) {
+            total += amount;
+        }
+        return total;
+    }
+
+    public long totalInterest() {
+        long total = 0;
+        for (long amount : interest) {
+            total += amount;
+        }
+        return total;
+    }
+}
@@ -0,0 +1,13 @@
+package com.krunal.loan.service.amortization;
+
+import com.krunal.loan.models.AmortizationMethod;
+
+public interface AmortizationStrategy {
+
+    AmortizationMethod method();
+
+    /**
+     * Builds the whole schedule in one pass. The principal parts always sum exactly to the loan amount.
+     */
+    AmortizationSchedule build(AmortizationTerms terms);
+}
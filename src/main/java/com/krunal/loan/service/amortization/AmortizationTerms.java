@@ -0,0 +1,42 @@
+package com.krunal.loan.service.amortization;
+
+import com.krunal.loan.common.MoneyUtils;
+import com.krunal.loan.models.AmortizationMethod;
+
+/**
+ * Inputs of a schedule in exact units: amounts in paise, rates in MoneyUtils.RATE_SCALE units.
+ */
+public record AmortizationTerms(AmortizationMethod method, long principalPaise, long rateUnits, int months,
+                                long stepUpRateUnits, int stepUpEveryMonths) {
+    // 50 years, schedules are built in memory so the tenure bounds their size
+    public static final int MAX_MONTHS = 600;
+
+    public AmortizationTerms {
+        if (method == null) {
+            throw new IllegalArgumentException("Amortization method is required");
+        }
+        if (principalPaise <= 0) {
+            throw new IllegalArgumentException("Loan amount must be greater than zero");
+        }
+        if (rateUnits < 0) {
+            throw new IllegalArgumentException("Interest rate must not be negative");
+        }
+        if (months <= 0) {
+            throw new IllegalArgumentException("Loan duration must be greater than zero");
+        }
+        if (months > MAX_MONTHS) {
+            throw new IllegalArgumentException("Loan duration must be at most " + MAX_MONTHS + " months");
+        }
+    }
+
+    public static AmortizationTerms of(Long methodCode, double loanAmount, double interestRate, int months,
+                                       Double stepUpRate, Integer stepUpEveryMonths) {
+        AmortizationMethod method = AmortizationMethod.fromCodeOrFlat(methodCode);
+        if (methodCode != null && AmortizationMethod.fromCode(methodCode) == null) {
+            throw new IllegalArgumentException("Invalid amortization method: " + methodCode);
+        }
+        return new AmortizationTerms(method, MoneyUtils.toPaise(loanAmount), MoneyUtils.toRateUnits(interestRate), months,
+                stepUpRate != null ? MoneyUtils.toRateUnits(stepUpRate) : 0L,
+                stepUpEveryMonths != null ? stepUpEveryMonths : 0);
+    }
+}
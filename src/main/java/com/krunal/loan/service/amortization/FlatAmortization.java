@@ -0,0 +1,39 @@
+package com.krunal.loan.service.amortization;
+
+import com.krunal.loan.common.MoneyUtils;
+import com.krunal.loan.models.AmortizationMethod;
+import org.springframework.stereotype.Component;
+
+import java.math.RoundingMode;
+
+// Interest on the full principal for the whole term, spread evenly. The last EMI absorbs the rounding remainder.
+@Component
+public class FlatAmortization implements AmortizationStrategy {
+
+    @Override
+    public AmortizationMethod method() {
+        return AmortizationMethod.FLAT;
+    }
+
+    @Override
+    public AmortizationSchedule build(AmortizationTerms terms) {
+        int months = terms.months();
+        long principal = terms.principalPaise();
+        long total = principal + MoneyUtils.simpleInterest(principal, terms.rateUnits(), months, RoundingMode.HALF_UP);
+        long instalment = MoneyUtils.flatInstalment(total, months);
+        long principalPart = MoneyUtils.flatInstalment(principal, months);
+
+        AmortizationSchedule schedule = new AmortizationSchedule(months);
+        long balance = principal;
+        long remaining = total;
+        for (int i = 0; i < months; i++) {
+            boolean last = i == months - 1;
+            long amount = last ? remaining : instalment;
+            long principalPaid = last ? balance : principalPart;
+            balance -= principalPaid;
+            remaining -= amount;
+            schedule.set(i, principalPaid, amount - principalPaid, balance);
+        }
+        return schedule;
+    }
+}
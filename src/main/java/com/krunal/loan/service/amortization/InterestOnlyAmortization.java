@@ -0,0 +1,29 @@
+package com.krunal.loan.service.amortization;
+
+import com.krunal.loan.common.MoneyUtils;
+import com.krunal.loan.models.AmortizationMethod;
+import org.springframework.stereotype.Component;
+
+// Monthly interest only, the whole principal is repaid with the last EMI
+@Component
+public class InterestOnlyAmortization implements AmortizationStrategy {
+
+    @Override
+    public AmortizationMethod method() {
+        return AmortizationMethod.INTEREST_ONLY;
+    }
+
+    @Override
+    public AmortizationSchedule build(AmortizationTerms terms) {
+        int months = terms.months();
+        long principal = terms.principalPaise();
+        long interest = MoneyUtils.monthlyInterest(principal, terms.rateUnits());
+
+        AmortizationSchedule schedule = new AmortizationSchedule(months);
+        for (int i = 0; i < months - 1; i++) {
+            schedule.set(i, 0, interest, principal);
+        }
+        schedule.set(months - 1, principal, interest, 0);
+        return schedule;
+    }
+}
@@ -0,0 +1,31 @@
+package com.krunal.loan.service.amortization;
+
+import com.krunal.loan.common.MoneyUtils;
+import com.krunal.loan.models.AmortizationMethod;
+import org.springframework.stereotype.Component;
+
+// Equal EMIs, interest charged monthly on the outstanding principal. (1+r)^n is evaluated once for the EMI.
+@Component
+public class ReducingBalanceAmortization implements AmortizationStrategy {
+
+    @Override
+    public AmortizationMethod method() {
+        return AmortizationMethod.REDUCING_BALANCE;
+    }
+
+    @Override
+    public AmortizationSchedule build(AmortizationTerms terms) {
+        int months = terms.months();
+        long instalment = MoneyUtils.reducingBalanceInstalment(terms.principalPaise(), terms.rateUnits(), months);
+
+        AmortizationSchedule schedule = new AmortizationSchedule(months);
+        long balance = terms.principalPaise();
+        for (int i = 0; i < months; i++) {
+            long interest = MoneyUtils.monthlyInterest(balance, terms.rateUnits());
+            long principalPaid = i == months - 1 ? balance : Math.min(balance, Math.max(0, instalment - interest));
+            balance -= principalPaid;
+            schedule.set(i, principalPaid, interest, balance);
+        }
+        return schedule;
+    }
+}
@@ -0,0 +1,61 @@
+package com.krunal.loan.service.amortization;
+
+import com.krunal.loan.common.MoneyUtils;
+import com.krunal.loan.models.AmortizationMethod;
+import org.springframework.stereotype.Component;
+
+/**
+ * Reducing balance schedule whose EMI grows by the step-up rate every stepUpEveryMonths. The first EMI is the one
+ * that makes the present value of all EMIs equal the principal, the discount and step factors are carried as
+ * running products so no power is evaluated per row.
+ */
+@Component
+public class StepUpAmortization implements AmortizationStrategy {
+
+    @Override
+    public AmortizationMethod method() {
+        return AmortizationMethod.STEP_UP;
+    }
+
+    @Override
+    public AmortizationSchedule build(AmortizationTerms terms) {
+        if (terms.stepUpRateUnits() <= 0 || terms.stepUpEveryMonths() <= 0) {
+            throw new IllegalArgumentException("Step-up rate and step-up interval must be greater than zero");
+        }
+        int months = terms.months();
+        int every = terms.stepUpEveryMonths();
+        double monthlyRate = terms.rateUnits() / (double) (100L * MoneyUtils.RATE_SCALE) / 12.0;
+        double stepGrowth = 1 + terms.stepUpRateUnits() / (double) (100L * MoneyUtils.RATE_SCALE);
+        double monthlyDiscount = 1 / (1 + monthlyRate);
+
+        double presentValueFactor = 0;
+        double discount = 1;
+        double step = 1;
+        for (int i = 0; i < months; i++) {
+            if (i > 0 && i % every == 0) {
+                step *= stepGrowth;
+            }
+            discount *= monthlyDiscount;
+            presentValueFactor += step * discount;
+        }
+        double firstInstalment = terms.principalPaise() / presentValueFactor;
+
+        AmortizationSchedule schedule = new AmortizationSchedule(months);
+        long balance = terms.principalPaise();
+        step = 1;
+        for (int i = 0; i < months; i++) {
+            if (i > 0 && i % every == 0) {
+                step *= stepGrowth;
+            }
+            long interest = MoneyUtils.monthlyInterest(balance, terms.rateUnits());
+            long instalment = Math.round(firstInstalment * step);
+            if (instalment < interest) {
+                throw new IllegalArgumentException("Step-up schedule does not cover the monthly interest, lower the step-up rate");
+            }
+            long principalPaid = i == months - 1 ? balance : Math.min(balance, instalment - interest);
+            balance -= principalPaid;
+            schedule.set(i, principalPaid, interest, balance);
+        }
+        return schedule;
+    }
+}
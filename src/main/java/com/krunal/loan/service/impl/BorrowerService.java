@@ -1,14 +1,21 @@
 package com.krunal.loan.service.impl;
 
 import com.krunal.loan.aspect.AddUserNames;
+import com.krunal.loan.exception.BorrowerNotFoundException;
 import com.krunal.loan.models.Borrower;
+import com.krunal.loan.models.BorrowersFile;
 import com.krunal.loan.models.Loan;
+import com.krunal.loan.payload.response.BorrowerListItem;
+import com.krunal.loan.payload.response.PageResponse;
 import com.krunal.loan.repository.BorrowerRepository;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.util.ArrayList;
 import java.util.List;
 
 
@@ -34,5 +41,68 @@ public class BorrowerService {
         return borrowers;
     }
 
+    @AddUserNames
+    public PageResponse<BorrowerListItem> getBorrowerPage(Pageable pageable) {
+        logger.info("Fetching borrower page {} with size {}", pageable.getPageNumber(), pageable.getPageSize());
+        return PageResponse.of(borrowerRepository.findBorrowerListItems(pageable));
+    }
+
+    // Files and loans are fetched by two queries in one transaction, the second fills the loans of the same instance
+    @AddUserNames
+    @Transactional(readOnly = true)
+    public Borrower getBorrowerById(Long borrowerId) {
+        logger.info("Fetching borrower with ID: {}", borrowerId);
+        Borrower borrower = borrowerRepository.findByIdWithFiles(borrowerId)
+                .orElseThrow(() -> {
+                    logger.warn("Borrower with ID {} not found", borrowerId);
+                    return new BorrowerNotFoundException("Error: Borrower not found");
+                });
+        borrowerRepository.findByIdWithLoans(borrowerId);
+        List<Loan> loans = borrower.getLoans();
+        borrower.setNoOfLoan(loans.size());
+        borrower.setTotalLoanAmount(loans.stream()
+                .mapToDouble(Loan::getLoanAmount)
+                .sum());
+        return borrower;
+    }
+
+
 
-}
\ No newline at end of file
+    /**
+     * Saves a new borrower with its already uploaded files in one transaction. The account number needs the
+     * generated id, so the borrower is saved once for the id and again with the account and file rows.
+     */
+    @Transactional
+    public Borrower registerBorrower(Borrower borrower, List<String> filePaths) {
+        borrower.setUserAccount("TEMP");
+        Borrower saved = borrowerRepository.save(borrower);
+        logger.info("Borrower saved with ID: {}", saved.getBorrowerId());
+
+        toBorrowersFiles(saved.getBorrowerId(), filePaths).forEach(saved::addBorrowersFile);
+        saved.setUserAccount(String.format("OD-%04d", saved.getBorrowerId()));
+        return borrowerRepository.save(saved);
+    }
+
+    // Replaces the borrower's files when new ones were uploaded, in the same transaction as the borrower update
+    @Transactional
+    public Borrower updateBorrower(Borrower borrower, List<String> filePaths) {
+        if (!filePaths.isEmpty()) {
+            borrowerRepository.deleteBorrowersFilesByBorrowerId(borrower.getBorrowerId());
+            toBorrowersFiles(borrower.getBorrowerId(), filePaths).forEach(borrower::addBorrowersFile);
+        }
+        return borrowerRepository.save(borrower);
+    }
+
+    private static List<BorrowersFile> toBorrowersFiles(Long borrowerId, List<String> filePaths) {
+        List<BorrowersFile> borrowersFiles = new ArrayList<>(filePaths.size());
+        for (String filePath : filePaths) {
+            BorrowersFile borrowersFile = new BorrowersFile();
+            borrowersFile.setBorrowerId(borrowerId);
+            borrowersFile.setFilePath(filePath);
+            borrowersFile.setFileType("Borrower");
+            borrowersFile.setStatus(1);
+            borrowersFiles.add(borrowersFile);
+        }
+        return borrowersFiles;
+    }
+}
@@ -0,0 +1,181 @@
+package com.krunal.loan.service.impl;
+
+import com.krunal.loan.common.MoneyUtils;
+import com.krunal.loan.models.EmiStatus;
+import com.krunal.loan.models.LoanStatus;
+import com.krunal.loan.payload.response.CashFlowBucket;
+import com.krunal.loan.payload.response.CashFlowProjectionResponse;
+import com.krunal.loan.repository.EmiJdbcRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+@Service
+public class CashFlowProjectionService {
+    private static final Logger logger = LoggerFactory.getLogger(CashFlowProjectionService.class);
+    private static final long MAX_PROJECTION_DAYS = 5L * 366;
+    // Rows per fork join leaf, below this splitting costs more than summing
+    private static final int BUCKET_THRESHOLD = 16_384;
+
+    private enum Granularity {
+        DAY, MONTH
+    }
+
+    private final EmiJdbcRepository emiJdbcRepository;
+
+    public CashFlowProjectionService(EmiJdbcRepository emiJdbcRepository) {
+        this.emiJdbcRepository = emiJdbcRepository;
+    }
+
+    /**
+     * Projects the expected EMI inflows of all active loans between from and to (inclusive). Pending EMI rows
+     * are streamed into primitive arrays of day offsets and paise, which are then summed per day or per
+     * month by fork join tasks.
+     *
+     * @param from First day of the projection
+     * @param to Last day of the projection
+     * @param granularity DAY or MONTH, case insensitive, defaults to MONTH
+     * @return One bucket per period with the expected amount and EMI count
+     */
+    public CashFlowProjectionResponse project(LocalDate from, LocalDate to, String granularity) {
+        if (from == null || to == null) {
+            throw new IllegalArgumentException("from and to dates are required");
+        }
+        if (to.isBefore(from)) {
+            throw new IllegalArgumentException("to date must not be before from date");
+        }
+        long days = ChronoUnit.DAYS.between(from, to) + 1;
+        if (days > MAX_PROJECTION_DAYS) {
+            throw new IllegalArgumentException("Cash flow can be projected for at most " + MAX_PROJECTION_DAYS + " days");
+        }
+        Granularity bucketGranularity = parseGranularity(granularity);
+        logger.info("Projecting cash flow from {} to {} by {}", from, to, bucketGranularity);
+
+        DueRows rows = new DueRows();
+        long fromDay = from.toEpochDay();
+        emiJdbcRepository.streamDueAmounts(EmiStatus.PENDING.getCode(), LoanStatus.ACTIVE.getCode(), from, to,
+                (emiDate, amount) -> rows.add((int) (emiDate.toEpochDay() - fromDay), MoneyUtils.toPaise(amount)));
+        logger.debug("Streamed {} pending EMI rows", rows.size);
+
+        List<LocalDate[]> periods = periods(from, to, bucketGranularity);
+        int[] dayToBucket = dayToBucket(from, (int) days, periods);
+        long[] totals = ForkJoinPool.commonPool().invoke(new BucketTask(rows, 0, rows.size, dayToBucket, periods.size()));
+
+        List<CashFlowBucket> buckets = new ArrayList<>(periods.size());
+        long totalPaise = 0;
+        long totalCount = 0;
+        for (int i = 0; i < periods.size(); i++) {
+            long amountPaise = totals[i];
+            long count = totals[periods.size() + i];
+            totalPaise += amountPaise;
+            totalCount += count;
+            buckets.add(new CashFlowBucket(periods.get(i)[0], periods.get(i)[1], MoneyUtils.toRupees(amountPaise), count));
+        }
+        logger.info("Projected {} EMIs over {} buckets", totalCount, buckets.size());
+        return new CashFlowProjectionResponse(from, to, bucketGranularity.name(), MoneyUtils.toRupees(totalPaise), totalCount, buckets);
+    }
+
+    private static Granularity parseGranularity(String granularity) {
+        if (granularity == null || granularity.isBlank()) {
+            return Granularity.MONTH;
+        }
+        try {
+            return Granularity.valueOf(granularity.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid granularity: " + granularity + ", expected DAY or MONTH");
+        }
+    }
+
+    // [start, end] of every period, the first and last months are clipped to the requested window
+    private static List<LocalDate[]> periods(LocalDate from, LocalDate to, Granularity granularity) {
+        List<LocalDate[]> periods = new ArrayList<>();
+        if (granularity == Granularity.DAY) {
+            for (LocalDate day = from; !day.isAfter(to); day = day.plusDays(1)) {
+                periods.add(new LocalDate[]{day, day});
+            }
+            return periods;
+        }
+        for (YearMonth month = YearMonth.from(from); !month.isAfter(YearMonth.from(to)); month = month.plusMonths(1)) {
+            LocalDate start = month.atDay(1).isBefore(from) ? from : month.atDay(1);
+            LocalDate end = month.atEndOfMonth().isAfter(to) ? to : month.atEndOfMonth();
+            periods.add(new LocalDate[]{start, end});
+        }
+        return periods;
+    }
+
+    private static int[] dayToBucket(LocalDate from, int days, List<LocalDate[]> periods) {
+        int[] dayToBucket = new int[days];
+        for (int bucket = 0; bucket < periods.size(); bucket++) {
+            int start = (int) ChronoUnit.DAYS.between(from, periods.get(bucket)[0]);
+            int end = (int) ChronoUnit.DAYS.between(from, periods.get(bucket)[1]);
+            Arrays.fill(dayToBucket, start, end + 1, bucket);
+        }
+        return dayToBucket;
+    }
+
+    // Growable parallel arrays of day offset and amount in paise
+    private static final class DueRows {
+        private int[] dayOffsets = new int[1024];
+        private long[] amounts = new long[1024];
+        private int size;
+
+        void add(int dayOffset, long amountPaise) {
+            if (size == dayOffsets.length) {
+                dayOffsets = Arrays.copyOf(dayOffsets, size * 2);
+                amounts = Arrays.copyOf(amounts, size * 2);
+            }
+            dayOffsets[size] = dayOffset;
+            amounts[size] = amountPaise;
+            size++;
+        }
+    }
+
+    // Sums a slice of the rows into [amount per bucket..., count per bucket...]
+    private static final class BucketTask extends RecursiveTask<long[]> {
+        private final DueRows rows;
+        private final int start;
+        private final int end;
+        private final int[] dayToBucket;
+        private final int bucketCount;
+
+        BucketTask(DueRows rows, int start, int end, int[] dayToBucket, int bucketCount) {
+            this.rows = rows;
+            this.start = start;
+            this.end = end;
+            this.dayToBucket = dayToBucket;
+            this.bucketCount = bucketCount;
+        }
+
+        @Override
+        protected long[] compute() {
+            if (end - start <= BUCKET_THRESHOLD) {
+                long[] totals = new long[bucketCount * 2];
+                for (int i = start; i < end; i++) {
+                    int bucket = dayToBucket[rows.dayOffsets[i]];
+                    totals[bucket] += rows.amounts[i];
+                    totals[bucketCount + bucket]++;
+                }
+                return totals;
+            }
+            int middle = (start + end) >>> 1;
+            BucketTask left = new BucketTask(rows, start, middle, dayToBucket, bucketCount);
+            left.fork();
+            long[] totals = new BucketTask(rows, middle, end, dayToBucket, bucketCount).compute();
+            long[] leftTotals = left.join();
+            for (int i = 0; i < totals.length; i++) {
+                totals[i] += leftTotals[i];
+            }
+            return totals;
+        }
+    }
+}
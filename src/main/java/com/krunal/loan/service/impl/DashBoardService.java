@@ -1,15 +1,16 @@
 package com.krunal.loan.service.impl;
 
 import com.krunal.loan.common.DateUtils;
-import com.krunal.loan.models.Borrower;
-import com.krunal.loan.models.Loan;
-import com.krunal.loan.models.LoanStatus;
+import com.krunal.loan.models.Emi;
+import com.krunal.loan.models.EmiStatus;
+import com.krunal.loan.models.PortfolioDailyRollup;
 import com.krunal.loan.payload.response.DashBoardLoanCountsResponse;
+import com.krunal.loan.payload.response.EmiListByDateResponse;
+import com.krunal.loan.payload.response.PortfolioSummaryResponse;
 import com.krunal.loan.repository.BorrowerRepository;
-import com.krunal.loan.repository.LoanRepository;
+import com.krunal.loan.repository.EmiRepository;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
 
 import java.time.LocalDate;
@@ -18,18 +19,39 @@ import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.concurrent.atomic.AtomicReference;
-import java.util.function.Predicate;
 
 @Service
 public class DashBoardService {
     private static final Logger logger = LoggerFactory.getLogger(DashBoardService.class);
     private final BorrowerRepository borrowerRepository;
-    private final LoanRepository loanRepository;
+    private final EmiRepository emiRepository;
+    private final PortfolioRollupService portfolioRollupService;
 
-    public DashBoardService(BorrowerRepository borrowerRepository, LoanRepository loanRepository) {
+    public DashBoardService(BorrowerRepository borrowerRepository, EmiRepository emiRepository, PortfolioRollupService portfolioRollupService) {
         this.borrowerRepository = borrowerRepository;
-        this.loanRepository = loanRepository;
+        this.emiRepository = emiRepository;
+        this.portfolioRollupService = portfolioRollupService;
+    }
+
+    public EmiListByDateResponse getDashboardEmiList() {
+        logger.info("Entering getDashboardEmiList");
+        EmiListByDateResponse response = new EmiListByDateResponse();
+
+        // Earliest due pending EMIs first, most recently updated received/bounced EMIs first
+        List<Emi> upcomingEmis = emiRepository.findTop12ByStatusOrderByEmiDateAscEmiIdAsc(EmiStatus.PENDING.getCode());
+        logger.debug("Found {} upcoming EMIs", upcomingEmis.size());
+        response.setUpcomingEmis(upcomingEmis);
+
+        List<Emi> receivedEmis = emiRepository.findTop12ByStatusOrderByUpdatedDateDesc(EmiStatus.APPROVED.getCode());
+        logger.debug("Found {} received EMIs", receivedEmis.size());
+        response.setReceivedEmis(receivedEmis);
+
+        List<Emi> bouncedEmis = emiRepository.findTop12ByStatusOrderByUpdatedDateDesc(EmiStatus.FAILED.getCode());
+        logger.debug("Found {} bounced EMIs", bouncedEmis.size());
+        response.setBouncedEmis(bouncedEmis);
+
+        logger.info("Exiting getDashboardEmiList");
+        return response;
     }
 
     public DashBoardLoanCountsResponse getDashBoardLoanCountsResponse(String startDate, String endDate) {
@@ -42,172 +64,64 @@ public class DashBoardService {
         logger.debug("Converted startDate: {} to LocalDate: {}", startDate, localDateStart);
         logger.debug("Converted endDate: {} to LocalDate: {}", endDate, localDateEnd);
 
-        Integer totalBorrowers = borrowerRepository.findAll().size();
-        logger.debug("Total borrowers fetched: {}", totalBorrowers);
+        long totalBorrowers = borrowerRepository.count();
+        logger.debug("Total borrowers counted: {}", totalBorrowers);
 
-        AtomicReference<Integer> totalLoanAccounts = new AtomicReference<>(0);
-        AtomicReference<Integer> activeLoanAccounts = new AtomicReference<>(0);
-        AtomicReference<Integer> closedLoanAccounts = new AtomicReference<>(0);
-        AtomicReference<Double> totalLoanAmount = new AtomicReference<>(0.0);
-        AtomicReference<Double> activeLoanAmount = new AtomicReference<>(0.0);
-        AtomicReference<Double> closedLoanAmount = new AtomicReference<>(0.0);
-
-        Predicate<Loan> isActiveLoan = loan -> loan.getStatus().equals(LoanStatus.ACTIVE.getCode());
-        Predicate<Loan> isClosedLoan = loan -> loan.getStatus().equals(LoanStatus.CLOSED.getCode());
-        Predicate<Loan> isNotRejectedLoan = loan -> !loan.getStatus().equals(LoanStatus.REJECTED.getCode());
-
-        List<Loan> loans = getLoansBetweenDates(localDateStart, localDateEnd);
-        logger.debug("Fetched {} loans between {} and {}", loans.size(), localDateStart, localDateEnd);
-
-        loans.forEach(loan -> {
-            if (isActiveLoan.test(loan)) {
-                activeLoanAccounts.set(activeLoanAccounts.get() + 1);
-                activeLoanAmount.set(activeLoanAmount.get() + loan.getLoanAmount());
-            }
-            if (isClosedLoan.test(loan)) {
-                closedLoanAccounts.set(closedLoanAccounts.get() + 1);
-                closedLoanAmount.set(closedLoanAmount.get() + loan.getLoanAmount());
-            }
-            if (isNotRejectedLoan.test(loan)) {
-                totalLoanAccounts.set(totalLoanAccounts.get() + 1);
-                totalLoanAmount.set(totalLoanAmount.get() + loan.getLoanAmount());
-            }
-        });
-
-        logger.debug("Active loan accounts: {}", activeLoanAccounts.get());
-        logger.debug("Closed loan accounts: {}", closedLoanAccounts.get());
-        logger.debug("Total loan accounts: {}", totalLoanAccounts.get());
-        logger.debug("Active loan amount: {}", activeLoanAmount.get());
-        logger.debug("Closed loan amount: {}", closedLoanAmount.get());
-        logger.debug("Total loan amount: {}", totalLoanAmount.get());
-
-        response.setActiveLoanAccountsIncrease(calculateLoanAccountIncreasePercentage(isActiveLoan));
-        response.setClosedLoanAccountsIncrease(calculateLoanAccountIncreasePercentage(isClosedLoan));
-        response.setTotalLoanAccountsIncrease(calculateLoanAccountIncreasePercentage(isNotRejectedLoan));
-        response.setTotalBorrowersIncrease(calculateBorrowerIncreasePercentage());
-        response.setTotalBorrowers(totalBorrowers);
-        response.setTotalLoanAccounts(totalLoanAccounts.get());
-        response.setActiveLoanAccounts(activeLoanAccounts.get());
-        response.setClosedLoanAccounts(closedLoanAccounts.get());
-        response.setTotalLoanAmount(totalLoanAmount.get());
-        response.setActiveLoanAmount(activeLoanAmount.get());
-        response.setClosedLoanAmount(closedLoanAmount.get());
-
-        logger.info("Exiting getDashBoardLoanCountsResponse with response: {}", response);
-        return response;
-    }
-
-    public float calculateLoanAccountIncreasePercentage(Predicate<Loan> statusPredicate) {
-        logger.info("Entering calculateLoanAccountIncreasePercentage with statusPredicate");
+        // Every figure is summed from the daily portfolio rollup instead of the raw tables
+        PortfolioDailyRollup windowTotals = portfolioRollupService.getTotals(localDateStart, localDateEnd);
 
+        // Month-over-month compares the 1st..today of this month with the same span of the previous month
         LocalDate today = LocalDate.now();
-        logger.debug("Today's date: {}", today);
-
-        // Calculate the start and end dates of the current month period (1st to today)
         LocalDate startOfCurrentMonth = today.withDayOfMonth(1);
-        LocalDate endOfCurrentMonth = today; // Use today's date as the end
-
-        // Calculate the start and end dates of the previous month period (1st to the same day as today)
         LocalDate startOfPreviousMonth = startOfCurrentMonth.minusMonths(1);
-        LocalDate endOfPreviousMonth = startOfPreviousMonth.withDayOfMonth(today.getDayOfMonth());
-
-        logger.debug("Current month period: {} to {}", startOfCurrentMonth, endOfCurrentMonth);
+        LocalDate endOfPreviousMonth = today.minusMonths(1);
+        logger.debug("Current month period: {} to {}", startOfCurrentMonth, today);
         logger.debug("Previous month period: {} to {}", startOfPreviousMonth, endOfPreviousMonth);
 
-        // Fetch loans for the current and previous month periods using Specifications
-        Specification<Loan> currentMonthSpec = LoanSpecifications.loanDateBetween(startOfCurrentMonth, endOfCurrentMonth);
-        Specification<Loan> previousMonthSpec = LoanSpecifications.loanDateBetween(startOfPreviousMonth, endOfPreviousMonth);
+        PortfolioDailyRollup currentMonthTotals = portfolioRollupService.getTotals(startOfCurrentMonth, today);
+        PortfolioDailyRollup previousMonthTotals = portfolioRollupService.getTotals(startOfPreviousMonth, endOfPreviousMonth);
+
+        response.setActiveLoanAccountsIncrease(calculateIncreasePercentage(
+                currentMonthTotals.getActiveLoans(), previousMonthTotals.getActiveLoans()));
+        response.setClosedLoanAccountsIncrease(calculateIncreasePercentage(
+                currentMonthTotals.getClosedLoans(), previousMonthTotals.getClosedLoans()));
+        response.setTotalLoanAccountsIncrease(calculateIncreasePercentage(
+                countNotRejectedLoans(currentMonthTotals), countNotRejectedLoans(previousMonthTotals)));
+        response.setTotalBorrowersIncrease(calculateIncreasePercentage(
+                currentMonthTotals.getNewBorrowers(), previousMonthTotals.getNewBorrowers()));
+        response.setTotalBorrowers((int) totalBorrowers);
+        response.setTotalLoanAccounts((int) countNotRejectedLoans(windowTotals));
+        response.setActiveLoanAccounts((int) windowTotals.getActiveLoans());
+        response.setClosedLoanAccounts((int) windowTotals.getClosedLoans());
+        response.setTotalLoanAmount(windowTotals.getTotalLoanAmount() - windowTotals.getRejectedLoanAmount());
+        response.setActiveLoanAmount(windowTotals.getActiveLoanAmount());
+        response.setClosedLoanAmount(windowTotals.getClosedLoanAmount());
 
-        List<Loan> currentMonthLoans = loanRepository.findAll(currentMonthSpec);
-        List<Loan> previousMonthLoans = loanRepository.findAll(previousMonthSpec);
-
-        logger.debug("Fetched {} loans for the current month", currentMonthLoans.size());
-        logger.debug("Fetched {} loans for the previous month", previousMonthLoans.size());
-
-        // Filter loans using the provided Predicate
-        currentMonthLoans = currentMonthLoans.stream()
-                .filter(statusPredicate) // Apply the Predicate
-                .toList();
-
-        previousMonthLoans = previousMonthLoans.stream()
-                .filter(statusPredicate) // Apply the Predicate
-                .toList();
-
-        logger.debug("Filtered current month loans: {}", currentMonthLoans.size());
-        logger.debug("Filtered previous month loans: {}", previousMonthLoans.size());
-
-        // Count the number of loans
-        int currentMonthLoanCount = currentMonthLoans.size();
-        int previousMonthLoanCount = previousMonthLoans.size();
+        logger.info("Exiting getDashBoardLoanCountsResponse with response: {}", response);
+        return response;
+    }
 
-        // Handle edge case where there were no loans in the previous month
-        if (previousMonthLoanCount == 0) {
-            logger.debug("No loans in the previous month. Returning 100.0 if current month has loans, otherwise 0.0");
-            return (float) (currentMonthLoanCount > 0 ? 100.0 : 0.0);
+    public PortfolioSummaryResponse getPortfolioSummary(String startDate, String endDate) {
+        LocalDate localDateStart = DateUtils.getDateFromString(startDate, DateUtils.YMD);
+        LocalDate localDateEnd = DateUtils.getDateFromString(endDate, DateUtils.YMD);
+        if (localDateEnd.isBefore(localDateStart)) {
+            throw new IllegalArgumentException("endDate must not be before startDate");
         }
-
-        // Calculate and return the percentage increase
-        float increasePercentage = (float) (((double) (currentMonthLoanCount - previousMonthLoanCount) / previousMonthLoanCount) * 100);
-        logger.debug("Calculated percentage increase: {}", increasePercentage);
-
-        logger.info("Exiting calculateLoanAccountIncreasePercentage with result: {}", increasePercentage);
-        return increasePercentage;
+        logger.info("Summing portfolio rollup from {} to {}", localDateStart, localDateEnd);
+        return PortfolioSummaryResponse.of(localDateStart, localDateEnd, portfolioRollupService.getTotals(localDateStart, localDateEnd));
     }
 
-    public List<Loan> getLoansBetweenDates(LocalDate startDate, LocalDate endDate) {
-        logger.info("Entering getLoansBetweenDates with startDate: {} and endDate: {}", startDate, endDate);
-
-        // Use the Specification to filter loans
-        Specification<Loan> spec = LoanSpecifications.loanDateBetween(startDate, endDate);
-        List<Loan> loans = loanRepository.findAll(spec);
-
-        logger.debug("Fetched {} loans between {} and {}", loans.size(), startDate, endDate);
-        logger.info("Exiting getLoansBetweenDates");
-        return loans;
+    private static long countNotRejectedLoans(PortfolioDailyRollup totals) {
+        return totals.getTotalLoans() - totals.getRejectedLoans();
     }
 
-    public float calculateBorrowerIncreasePercentage() {
-        logger.info("Entering calculateBorrowerIncreasePercentage");
-
-        LocalDate today = LocalDate.now();
-        logger.debug("Today's date: {}", today);
-
-        // Calculate the start and end dates of the current month period (1st to today)
-        LocalDate startOfCurrentMonth = today.withDayOfMonth(1);
-        LocalDate endOfCurrentMonth = today; // Use today's date as the end
-
-        // Calculate the start and end dates of the previous month period (1st to the same day as today)
-        LocalDate startOfPreviousMonth = startOfCurrentMonth.minusMonths(1);
-        LocalDate endOfPreviousMonth = startOfPreviousMonth.withDayOfMonth(today.getDayOfMonth());
-
-        logger.debug("Current month period: {} to {}", startOfCurrentMonth, endOfCurrentMonth);
-        logger.debug("Previous month period: {} to {}", startOfPreviousMonth, endOfPreviousMonth);
-
-        // Fetch borrower for the current and previous month periods using Specifications
-        Specification<Borrower> currentMonthSpec = BorrowerSpecifications.loanDateBetween(startOfCurrentMonth, endOfCurrentMonth);
-        Specification<Borrower> previousMonthSpec = BorrowerSpecifications.loanDateBetween(startOfPreviousMonth, endOfPreviousMonth);
-
-        List<Borrower> currentMonthLoans = borrowerRepository.findAll(currentMonthSpec);
-        List<Borrower> previousMonthLoans = borrowerRepository.findAll(previousMonthSpec);
-
-
-        // Count the number of borrower
-        int currentMonthLoanCount = currentMonthLoans.size();
-        int previousMonthLoanCount = previousMonthLoans.size();
-
-        logger.debug("Fetched {} borrower for the current month", currentMonthLoanCount);
-        logger.debug("Fetched {} borrower for the previous month", previousMonthLoanCount);
-        // Handle edge case where there were no loans in the previous month
-        if (previousMonthLoanCount == 0) {
-            logger.debug("No loans in the previous month. Returning 100.0 if current month has loans, otherwise 0.0");
-            return (float) (currentMonthLoanCount > 0 ? 100.0 : 0.0);
+    public float calculateIncreasePercentage(long currentCount, long previousCount) {
+        // Handle edge case where there was nothing in the previous period
+        if (previousCount == 0) {
+            return (float) (currentCount > 0 ? 100.0 : 0.0);
         }
-
-        // Calculate and return the percentage increase
-        float increasePercentage = (float) (((double) (currentMonthLoanCount - previousMonthLoanCount) / previousMonthLoanCount) * 100);
-        logger.debug("Calculated percentage increase: {}", increasePercentage);
-
-        logger.info("Exiting calculateBorrowerIncreasePercentage with result: {}", increasePercentage);
+        float increasePercentage = (float) (((double) (currentCount - previousCount) / previousCount) * 100);
+        logger.debug("Calculated percentage increase from {} to {}: {}", previousCount, currentCount, increasePercentage);
         return increasePercentage;
     }
 
@@ -240,38 +154,29 @@ public class DashBoardService {
         int[] activeLoans = new int[months.size()];
         int[] closedLoans = new int[months.size()];
 
-        // Fetch loan data for each month
-        for (int i = 0; i < months.size(); i++) {
-            int year = startDate.plusMonths(i).getYear();
-            int month = startDate.plusMonths(i).getMonthValue();
-
-            // Fetch all loans for the specific month and year
-            List<Loan> loans = loanRepository.findByMonth(year, month);
-
-            // Initialize counters
-            int activeCount = 0;
-            int closedCount = 0;
-            int totalCount = 0;
-
-            // Check if loans list is empty
-            if (loans != null && !loans.isEmpty()) {
-                // Count loans based on status
-                for (Loan loan : loans) {
-                    if (loan.getStatus().equals(LoanStatus.ACTIVE.getCode())) {
-                        activeCount++;
-                    } else if (loan.getStatus().equals(LoanStatus.CLOSED.getCode())) {
-                        closedCount++;
-                    }
-                    if (!loan.getStatus().equals(LoanStatus.REJECTED.getCode())) {
-                        totalCount++;
-                    }
-                }
-            }
+        if (months.isEmpty()) {
+            result.put("totalLoans", totalLoans);
+            result.put("activeLoans", activeLoans);
+            result.put("closedLoans", closedLoans);
+            return result;
+        }
 
-            // Assign counts to arrays (default to 0 if loans list is empty)
-            totalLoans[i] = totalCount;
-            activeLoans[i] = activeCount;
-            closedLoans[i] = closedCount;
+        // Daily rollup rows from the first day of the first month to the last day of the last month
+        LocalDate firstMonth = startDate.withDayOfMonth(1);
+        LocalDate lastMonth = startDate.plusMonths(months.size() - 1L).withDayOfMonth(1);
+        List<PortfolioDailyRollup> rollups = portfolioRollupService.getDailyRollups(firstMonth, lastMonth.plusMonths(1).minusDays(1));
+        logger.debug("Fetched {} rollup days between {} and {}", rollups.size(), firstMonth, lastMonth);
+
+        int firstMonthIndex = firstMonth.getYear() * 12 + firstMonth.getMonthValue();
+        for (PortfolioDailyRollup rollup : rollups) {
+            LocalDate day = rollup.getRollupDate();
+            int i = day.getYear() * 12 + day.getMonthValue() - firstMonthIndex;
+            if (i < 0 || i >= months.size()) {
+                continue;
+            }
+            activeLoans[i] += (int) rollup.getActiveLoans();
+            closedLoans[i] += (int) rollup.getClosedLoans();
+            totalLoans[i] += (int) countNotRejectedLoans(rollup);
         }
 
         // Add results to the map
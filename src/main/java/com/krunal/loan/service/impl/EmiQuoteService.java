@@ -0,0 +1,133 @@
+package com.krunal.loan.service.impl;
+
+import com.krunal.loan.common.LruCache;
+import com.krunal.loan.common.MoneyUtils;
+import com.krunal.loan.models.AmortizationMethod;
+import com.krunal.loan.payload.request.EmiQuoteGridRequest;
+import com.krunal.loan.payload.response.EmiQuote;
+import com.krunal.loan.service.amortization.AmortizationEngine;
+import com.krunal.loan.service.amortization.AmortizationSchedule;
+import com.krunal.loan.service.amortization.AmortizationTerms;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Service
+public class EmiQuoteService {
+    private static final Logger logger = LoggerFactory.getLogger(EmiQuoteService.class);
+    private static final int MAX_GRID_SIZE = 1000;
+
+    private final AmortizationEngine amortizationEngine;
+    // Quotes are a pure function of the normalized terms, so entries never go stale
+    private final LruCache<QuoteKey, long[]> quotes;
+
+    public EmiQuoteService(AmortizationEngine amortizationEngine,
+                           @Value("${loan.app.quoteCache.maxEntries:10000}") int maxEntries) {
+        this.amortizationEngine = amortizationEngine;
+        this.quotes = new LruCache<>(maxEntries, 0);
+    }
+
+    public EmiQuote quote(Long amortizationMethod, double loanAmount, double interestRate, int numberOfEmis,
+                          Double stepUpRate, Integer stepUpEveryMonths) {
+        AmortizationTerms terms = AmortizationTerms.of(amortizationMethod, loanAmount, interestRate, numberOfEmis, stepUpRate, stepUpEveryMonths);
+        return toQuote(terms, quote(terms));
+    }
+
+    /**
+     * Quotes every (amount, rate, tenure) combination of the grid. Inputs are normalized to paise and rate units
+     * once, the grid is then walked over primitive arrays and only cache misses build a schedule.
+     */
+    public List<EmiQuote> quoteGrid(EmiQuoteGridRequest request) {
+        int amountCount = request.getLoanAmounts().size();
+        int rateCount = request.getInterestRates().size();
+        int tenureCount = request.getTenures().size();
+        long gridSize = (long) amountCount * rateCount * tenureCount;
+        if (gridSize > MAX_GRID_SIZE) {
+            throw new IllegalArgumentException("At most " + MAX_GRID_SIZE + " quotes can be calculated at once");
+        }
+
+        AmortizationMethod method = AmortizationMethod.fromCodeOrFlat(request.getAmortizationMethod());
+        if (request.getAmortizationMethod() != null && AmortizationMethod.fromCode(request.getAmortizationMethod()) == null) {
+            throw new IllegalArgumentException("Invalid amortization method: " + request.getAmortizationMethod());
+        }
+        boolean stepUp = method == AmortizationMethod.STEP_UP;
+        long stepUpRateUnits = stepUp && request.getStepUpRate() != null ? MoneyUtils.toRateUnits(request.getStepUpRate()) : 0L;
+        int stepUpEveryMonths = stepUp && request.getStepUpEveryMonths() != null ? request.getStepUpEveryMonths() : 0;
+
+        long[] principals = new long[amountCount];
+        for (int i = 0; i < amountCount; i++) {
+            principals[i] = MoneyUtils.toPaise(required(request.getLoanAmounts().get(i), "Loan amount"));
+        }
+        long[] rates = new long[rateCount];
+        for (int i = 0; i < rateCount; i++) {
+            rates[i] = MoneyUtils.toRateUnits(required(request.getInterestRates().get(i), "Interest rate"));
+        }
+        int[] tenures = new int[tenureCount];
+        for (int i = 0; i < tenureCount; i++) {
+            tenures[i] = required(request.getTenures().get(i), "Tenure");
+        }
+
+        List<EmiQuote> result = new ArrayList<>((int) gridSize);
+        int misses = 0;
+        for (long principal : principals) {
+            for (long rate : rates) {
+                for (int months : tenures) {
+                    AmortizationTerms terms = new AmortizationTerms(method, principal, rate, months, stepUpRateUnits, stepUpEveryMonths);
+                    QuoteKey key = QuoteKey.of(terms);
+                    long[] totals = quotes.get(key);
+                    if (totals == null) {
+                        totals = compute(terms);
+                        quotes.put(key, totals);
+                        misses++;
+                    }
+                    result.add(toQuote(terms, totals));
+                }
+            }
+        }
+        logger.info("Quoted {} EMI combinations, {} computed and {} served from cache", gridSize, misses, gridSize - misses);
+        return result;
+    }
+
+    private long[] quote(AmortizationTerms terms) {
+        QuoteKey key = QuoteKey.of(terms);
+        long[] totals = quotes.get(key);
+        if (totals == null) {
+            totals = compute(terms);
+            quotes.put(key, totals);
+        }
+        return totals;
+    }
+
+    // [first EMI, total payable, total interest] in paise
+    private long[] compute(AmortizationTerms terms) {
+        AmortizationSchedule schedule = amortizationEngine.build(terms);
+        return new long[]{schedule.instalment(0), schedule.totalInstalments(), schedule.totalInterest()};
+    }
+
+    private static EmiQuote toQuote(AmortizationTerms terms, long[] totals) {
+        return new EmiQuote(MoneyUtils.toRupees(terms.principalPaise()), terms.rateUnits() / (double) MoneyUtils.RATE_SCALE,
+                terms.months(), MoneyUtils.toRupees(totals[0]), MoneyUtils.toRupees(totals[1]), MoneyUtils.toRupees(totals[2]));
+    }
+
+    // Ranges are checked once, by AmortizationTerms
+    private static <T> T required(T value, String name) {
+        if (value == null) {
+            throw new IllegalArgumentException(name + " is required");
+        }
+        return value;
+    }
+
+    // Step-up terms only take part in the key for step-up schedules
+    private record QuoteKey(AmortizationMethod method, long principalPaise, long rateUnits, int months,
+                            long stepUpRateUnits, int stepUpEveryMonths) {
+        static QuoteKey of(AmortizationTerms terms) {
+            boolean stepUp = terms.method() == AmortizationMethod.STEP_UP;
+            return new QuoteKey(terms.method(), terms.principalPaise(), terms.rateUnits(), terms.months(),
+                    stepUp ? terms.stepUpRateUnits() : 0L, stepUp ? terms.stepUpEveryMonths() : 0);
+        }
+    }
+}
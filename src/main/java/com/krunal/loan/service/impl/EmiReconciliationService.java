@@ -0,0 +1,323 @@
+package com.krunal.loan.service.impl;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.krunal.loan.common.DateUtils;
+import com.krunal.loan.models.Emi;
+import com.krunal.loan.models.EmiStatus;
+import com.krunal.loan.payload.request.BankStatementRow;
+import com.krunal.loan.payload.response.ReconciliationLine;
+import com.krunal.loan.payload.response.ReconciliationReport;
+import com.krunal.loan.repository.EmiJdbcRepository;
+import com.krunal.loan.repository.EmiRepository;
+import com.krunal.loan.security.jwt.JwtUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.*;
+
+@Service
+public class EmiReconciliationService {
+    private static final Logger logger = LoggerFactory.getLogger(EmiReconciliationService.class);
+    private static final int MAX_STATEMENT_ROWS = 10000;
+    private static final double AMOUNT_TOLERANCE = 0.01;
+
+    private final EmiRepository emiRepository;
+    private final EmiJdbcRepository emiJdbcRepository;
+    private final JwtUtils jwtUtils;
+    private final ObjectMapper objectMapper;
+    private final LoanRepaymentSummaryService loanRepaymentSummaryService;
+
+    public EmiReconciliationService(EmiRepository emiRepository, EmiJdbcRepository emiJdbcRepository, JwtUtils jwtUtils, ObjectMapper objectMapper,
+                                    LoanRepaymentSummaryService loanRepaymentSummaryService) {
+        this.emiRepository = emiRepository;
+        this.emiJdbcRepository = emiJdbcRepository;
+        this.jwtUtils = jwtUtils;
+        this.objectMapper = objectMapper;
+        this.loanRepaymentSummaryService = loanRepaymentSummaryService;
+    }
+
+    /**
+     * Reads a CSV (header row required) or JSON-lines bank statement, matches every receipt to a pending EMI by
+     * loan account and due date, and posts the exact matches in batched updates. Rows that do not match exactly
+     * are only reported. With dryRun nothing is written.
+     */
+    @Transactional
+    public ReconciliationReport reconcile(InputStream statement, boolean jsonLines, Long paymentType, boolean dryRun) throws IOException {
+        Long userId = jwtUtils.getLoggedInUserDetails().getId();
+        List<StatementEntry> entries = jsonLines ? readJsonLines(statement) : readCsv(statement);
+        logger.info("Reconciling {} statement rows, dryRun: {}", entries.size(), dryRun);
+
+        Set<Long> loanIds = new HashSet<>();
+        entries.forEach(entry -> {
+            if (entry.loanId != null) {
+                loanIds.add(entry.loanId);
+            }
+        });
+        Map<EmiKey, EmiRef> emiIndex = loadEmiIndex(loanIds);
+
+        Set<EmiKey> seen = new HashSet<>();
+        List<StatementEntry> toPost = new ArrayList<>();
+        for (StatementEntry entry : entries) {
+            if (entry.line.getStatus() != null) {
+                continue; // Already rejected while parsing
+            }
+            EmiKey key = new EmiKey(entry.loanId, entry.dueDate);
+            EmiRef emi = emiIndex.get(key);
+            if (emi == null) {
+                entry.reject(ReconciliationReport.UNMATCHED, "No EMI for this loan account and due date");
+                continue;
+            }
+            entry.line.setEmiId(emi.emiId);
+            entry.line.setEmiAmount(emi.emiAmount);
+            if (!seen.add(key)) {
+                entry.reject(ReconciliationReport.DUPLICATE, "EMI already matched by an earlier row");
+            } else if (!Objects.equals(emi.status, EmiStatus.PENDING.getCode())) {
+                entry.reject(ReconciliationReport.ALREADY_PAID, "EMI status is " + EmiStatus.fromCode(emi.status));
+            } else if (Math.abs(emi.emiAmount - entry.amount) >= AMOUNT_TOLERANCE) {
+                entry.reject(ReconciliationReport.AMOUNT_MISMATCH, "Received amount differs from EMI amount");
+            } else {
+                entry.line.setStatus(ReconciliationReport.MATCHED);
+                toPost.add(entry);
+            }
+        }
+
+        if (!dryRun && !toPost.isEmpty()) {
+            post(toPost, paymentType, userId);
+        }
+
+        ReconciliationReport report = new ReconciliationReport();
+        report.setDryRun(dryRun);
+        entries.forEach(entry -> report.addLine(entry.line));
+        logger.info("Reconciliation finished: {} posted, {} matched, {} mismatched, {} unmatched, {} invalid",
+                report.getPosted(), report.getMatched(), report.getAmountMismatch(), report.getUnmatched(), report.getInvalid());
+        return report;
+    }
+
+    private void post(List<StatementEntry> toPost, Long paymentType, Long userId) {
+        List<Emi> payments = new ArrayList<>(toPost.size());
+        for (StatementEntry entry : toPost) {
+            Emi payment = new Emi();
+            payment.setEmiId(entry.line.getEmiId());
+            payment.setEmiReceivedAmount(entry.amount);
+            payment.setStatus(EmiStatus.APPROVED.getCode()); // Paid
+            payment.setPaymentMode(paymentType);
+            payment.setNotes(entry.row.getReference());
+            payment.setEmiReceivedDate(entry.receivedDate);
+            payment.setReceiverName(entry.row.getReceiverName());
+            payment.setUpdatedUser(userId);
+            payments.add(payment);
+        }
+
+        int[] counts = emiJdbcRepository.applyPayments(payments, EmiStatus.PENDING.getCode());
+        Set<Long> postedLoanIds = new HashSet<>();
+        for (int i = 0; i < toPost.size(); i++) {
+            if (counts[i] > 0) {
+                toPost.get(i).line.setStatus(ReconciliationReport.POSTED);
+                postedLoanIds.add(toPost.get(i).loanId);
+            } else {
+                toPost.get(i).line.setStatus(ReconciliationReport.CONFLICT);
+                toPost.get(i).line.setMessage("EMI was updated by another request");
+            }
+        }
+        loanRepaymentSummaryService.refresh(postedLoanIds);
+    }
+
+    private Map<EmiKey, EmiRef> loadEmiIndex(Set<Long> loanIds) {
+        Map<EmiKey, EmiRef> index = new HashMap<>();
+        if (loanIds.isEmpty()) {
+            return index;
+        }
+        for (Object[] row : emiRepository.findEmiKeysByLoanIds(loanIds)) {
+            EmiKey key = new EmiKey((Long) row[1], (LocalDate) row[2]);
+            index.put(key, new EmiRef((Long) row[0], (Double) row[3], (Long) row[4]));
+        }
+        logger.debug("Indexed {} EMIs for {} loans", index.size(), loanIds.size());
+        return index;
+    }
+
+    private List<StatementEntry> readCsv(InputStream statement) throws IOException {
+        List<StatementEntry> entries = new ArrayList<>();
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(statement, StandardCharsets.UTF_8))) {
+            String header = reader.readLine();
+            if (header == null) {
+                throw new IllegalArgumentException("Statement file is empty");
+            }
+            Map<String, Integer> columns = new HashMap<>();
+            List<String> names = splitCsvLine(header.replace("\uFEFF", ""));
+            for (int i = 0; i < names.size(); i++) {
+                columns.put(names.get(i).trim().toLowerCase(Locale.ROOT), i);
+            }
+            if (!columns.containsKey("loanaccount") || !columns.containsKey("duedate") || !columns.containsKey("amount")) {
+                throw new IllegalArgumentException("Statement header must contain loanAccount, dueDate and amount");
+            }
+
+            String line;
+            int lineNo = 1;
+            while ((line = reader.readLine()) != null) {
+                lineNo++;
+                if (line.isBlank()) {
+                    continue;
+                }
+                List<String> values = splitCsvLine(line);
+                BankStatementRow row = new BankStatementRow(
+                        column(values, columns, "loanaccount"), column(values, columns, "duedate"),
+                        column(values, columns, "amount"), column(values, columns, "receiveddate"),
+                        column(values, columns, "reference"), column(values, columns, "receivername"));
+                addEntry(entries, lineNo, row);
+            }
+        }
+        return entries;
+    }
+
+    private List<StatementEntry> readJsonLines(InputStream statement) throws IOException {
+        List<StatementEntry> entries = new ArrayList<>();
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(statement, StandardCharsets.UTF_8))) {
+            String line;
+            int lineNo = 0;
+            while ((line = reader.readLine()) != null) {
+                lineNo++;
+                if (line.isBlank()) {
+                    continue;
+                }
+                try {
+                    addEntry(entries, lineNo, objectMapper.readValue(line, BankStatementRow.class));
+                } catch (JsonProcessingException e) {
+                    StatementEntry entry = new StatementEntry(lineNo, new BankStatementRow());
+                    entry.reject(ReconciliationReport.INVALID, "Invalid JSON: " + e.getOriginalMessage());
+                    entries.add(entry);
+                }
+            }
+        }
+        return entries;
+    }
+
+    private static void addEntry(List<StatementEntry> entries, int lineNo, BankStatementRow row) {
+        if (entries.size() >= MAX_STATEMENT_ROWS) {
+            throw new IllegalArgumentException("Statement must not contain more than " + MAX_STATEMENT_ROWS + " rows");
+        }
+        StatementEntry entry = new StatementEntry(lineNo, row);
+        entry.parse();
+        entries.add(entry);
+    }
+
+    private static String column(List<String> values, Map<String, Integer> columns, String name) {
+        Integer index = columns.get(name);
+        if (index == null || index >= values.size()) {
+            return null;
+        }
+        String value = values.get(index).trim();
+        return value.isEmpty() ? null : value;
+    }
+
+    // Splits one CSV line, honouring double quoted values with "" escapes
+    private static List<String> splitCsvLine(String line) {
+        List<String> values = new ArrayList<>();
+        StringBuilder current = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    current.append('"');
+                    i++;
+                } else if (c == '"') {
+                    quoted = false;
+                } else {
+                    current.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                values.add(current.toString());
+                current.setLength(0);
+            } else {
+                current.append(c);
+            }
+        }
+        values.add(current.toString());
+        return values;
+    }
+
+    // Loan accounts are LN-%07d of the loan id
+    private static Long parseLoanAccount(String loanAccount) {
+        String digits = loanAccount.trim().toUpperCase(Locale.ROOT);
+        if (digits.startsWith("LN-")) {
+            digits = digits.substring(3);
+        }
+        return Long.parseLong(digits);
+    }
+
+    private static LocalDate parseDate(String date) {
+        try {
+            return DateUtils.getDateFromString(date, DateUtils.YMD);
+        } catch (DateTimeParseException e) {
+            return DateUtils.getDateFromString(date, DateUtils.DMY);
+        }
+    }
+
+    private record EmiKey(Long loanId, LocalDate emiDate) {
+    }
+
+    private record EmiRef(Long emiId, Double emiAmount, Long status) {
+    }
+
+    private static final class StatementEntry {
+        private final BankStatementRow row;
+        private final ReconciliationLine line;
+        private Long loanId;
+        private LocalDate dueDate;
+        private LocalDate receivedDate;
+        private double amount;
+
+        private StatementEntry(int lineNo, BankStatementRow row) {
+            this.row = row;
+            this.line = new ReconciliationLine(lineNo, row.getLoanAccount(), row.getDueDate(), null, null, null, null, null);
+        }
+
+        private void parse() {
+            if (row.getLoanAccount() == null || row.getDueDate() == null || row.getAmount() == null) {
+                reject(ReconciliationReport.INVALID, "loanAccount, dueDate and amount are required");
+                return;
+            }
+            try {
+                loanId = parseLoanAccount(row.getLoanAccount());
+            } catch (NumberFormatException e) {
+                reject(ReconciliationReport.INVALID, "Invalid loan account");
+                return;
+            }
+            try {
+                dueDate = parseDate(row.getDueDate().trim());
+                receivedDate = row.getReceivedDate() != null ? parseDate(row.getReceivedDate().trim()) : LocalDate.now();
+            } catch (DateTimeParseException e) {
+                reject(ReconciliationReport.INVALID, "Invalid date, expected yyyy-MM-dd or dd-MM-yyyy");
+                return;
+            }
+            try {
+                amount = Double.parseDouble(row.getAmount().trim().replace(",", ""));
+            } catch (NumberFormatException e) {
+                reject(ReconciliationReport.INVALID, "Invalid amount");
+                return;
+            }
+            if (amount <= 0) {
+                reject(ReconciliationReport.INVALID, "Amount must be greater than zero");
+                return;
+            }
+            line.setAmount(amount);
+        }
+
+        private void reject(String status, String message) {
+            line.setStatus(status);
+            line.setMessage(message);
+        }
+    }
+}
@@ -1,6 +1,7 @@
 package com.krunal.loan.service.impl;
 
 import com.krunal.loan.common.DateUtils;
+import com.krunal.loan.common.MoneyUtils;
 import com.krunal.loan.common.S3BucketUtils;
 import com.krunal.loan.exception.FileUploadException;
 import com.krunal.loan.exception.LoanCustomException;
@@ -12,50 +13,81 @@ import com.krunal.loan.payload.request.EmiScheduleRequest;
 import com.krunal.loan.payload.request.EmiUpdateReq;
 import com.krunal.loan.payload.response.ContributionResponse;
 import com.krunal.loan.payload.response.EmiCalculationResponse;
+import com.krunal.loan.payload.response.EmiPageResponse;
+import com.krunal.loan.payload.response.EmiQuote;
+import com.krunal.loan.repository.EmiJdbcRepository;
 import com.krunal.loan.repository.EmiRepository;
 import com.krunal.loan.security.jwt.JwtUtils;
+import com.krunal.loan.service.amortization.AmortizationEngine;
+import com.krunal.loan.service.amortization.AmortizationSchedule;
+import com.krunal.loan.service.amortization.AmortizationTerms;
 import jakarta.validation.constraints.NotNull;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.multipart.MultipartFile;
 
-import java.math.BigDecimal;
 import java.math.RoundingMode;
 import java.time.LocalDate;
 import java.util.ArrayList;
-import java.util.Comparator;
 import java.util.List;
 import java.util.Optional;
+import java.util.function.Supplier;
 
 @Service
 public class EmiService {
     private static final Logger logger = LoggerFactory.getLogger(EmiService.class);
+    private static final int MAX_EMI_PAGE_SIZE = 200;
     private final EmiRepository emiRepository;
     private final JwtUtils jwtUtils;
     private final S3BucketUtils bucketUtils3;
-
-    public EmiService(EmiRepository emiRepository, JwtUtils jwtUtils, S3BucketUtils bucketUtils3) {
+    private final EmiJdbcRepository emiJdbcRepository;
+    private final AmortizationEngine amortizationEngine;
+    private final EmiQuoteService emiQuoteService;
+    private final LoanRepaymentSummaryService loanRepaymentSummaryService;
+    private final TransactionTemplate transactionTemplate;
+
+    public EmiService(EmiRepository emiRepository, JwtUtils jwtUtils, S3BucketUtils bucketUtils3, EmiJdbcRepository emiJdbcRepository,
+                      AmortizationEngine amortizationEngine, EmiQuoteService emiQuoteService,
+                      LoanRepaymentSummaryService loanRepaymentSummaryService, TransactionTemplate transactionTemplate) {
         this.emiRepository = emiRepository;
+        this.loanRepaymentSummaryService = loanRepaymentSummaryService;
+        this.transactionTemplate = transactionTemplate;
+        this.amortizationEngine = amortizationEngine;
+        this.emiQuoteService = emiQuoteService;
+        this.emiJdbcRepository = emiJdbcRepository;
         this.jwtUtils = jwtUtils;
         this.bucketUtils3 = bucketUtils3;
     }
 
     public void generateEmiSchedule(EmiScheduleRequest emiScheduleRequest) {
+        logger.info("Generating EMI schedule for loanId: {}", emiScheduleRequest.getLoanId());
+        List<Emi> emiSchedules = buildEmiSchedule(emiScheduleRequest, jwtUtils.getLoggedInUserDetails().getId());
+
+        // Save the EMI schedules in JDBC batches
+        emiJdbcRepository.insertSchedule(emiSchedules);
+        loanRepaymentSummaryService.refresh(emiScheduleRequest.getLoanId());
+        logger.info("EMI schedule generated successfully for loanId: {}", emiScheduleRequest.getLoanId());
+    }
+
+    // Builds the schedule in memory only, so it can be computed outside the request thread
+    public List<Emi> buildEmiSchedule(EmiScheduleRequest emiScheduleRequest, Long addUser) {
         double loanAmount = emiScheduleRequest.getLoanAmount();
         double interestRate = emiScheduleRequest.getInterestRate();
         int loanDuration = emiScheduleRequest.getNumberOfEmis();
         LocalDate emiStartDate = emiScheduleRequest.getFirstEmiDate();
         long loanId = emiScheduleRequest.getLoanId();
 
-        logger.info("Generating EMI schedule for loanId: {}", loanId);
-
         if (loanAmount <= 0) {
             throw new IllegalArgumentException("Loan amount must be greater than zero");
         }
-        if (interestRate <= 0) {
+        if (interestRate < 0) {
             logger.error("Invalid interest rate: {}", interestRate);
-            throw new IllegalArgumentException("Interest rate must be greater than zero");
+            throw new IllegalArgumentException("Interest rate must not be negative");
         }
         if (loanDuration <= 0) {
             logger.error("Invalid loan duration: {}", loanDuration);
@@ -66,72 +98,48 @@ public class EmiService {
             throw new IllegalArgumentException("EMI start date must not be null");
         }
 
-        List<Emi> emiSchedules = new ArrayList<>();
-        double emiAmount = calculateEmiAmount(loanAmount, interestRate, loanDuration);
-        double remainingAmount = emiAmount * loanDuration;
+        AmortizationSchedule schedule = amortizationEngine.build(AmortizationTerms.of(emiScheduleRequest.getAmortizationMethod(),
+                loanAmount, interestRate, loanDuration, emiScheduleRequest.getStepUpRate(), emiScheduleRequest.getStepUpEveryMonths()));
+
+        List<Emi> emiSchedules = new ArrayList<>(loanDuration);
+        // remainingAmount is what is still payable after this EMI, principalBalance the principal part of it
+        long remainingPaise = schedule.totalInstalments();
         LocalDate emiDate = emiStartDate;
 
-        for (int i = 1; i <= loanDuration; i++) {
+        for (int i = 0; i < loanDuration; i++) {
+            remainingPaise -= schedule.instalment(i);
             Emi emiSchedule = new Emi();
-            emiSchedule.setEmiNo(i);
+            emiSchedule.setEmiNo(i + 1);
             emiSchedule.setEmiDate(emiDate);
-            emiSchedule.setEmiAmount(emiAmount);
+            emiSchedule.setEmiAmount(MoneyUtils.toRupees(schedule.instalment(i)));
+            emiSchedule.setPrincipalAmount(MoneyUtils.toRupees(schedule.principal(i)));
+            emiSchedule.setInterestAmount(MoneyUtils.toRupees(schedule.interest(i)));
+            emiSchedule.setPrincipalBalance(MoneyUtils.toRupees(schedule.balance(i)));
             emiSchedule.setEmiReceivedAmount(0.0);
             emiSchedule.setLoanId(loanId);
             emiSchedule.setStatus(EmiStatus.PENDING.getCode());
-            emiSchedule.setAddUser(jwtUtils.getLoggedInUserDetails().getId());
-            remainingAmount -= emiAmount;
-            emiSchedule.setRemainingAmount(remainingAmount);
-            emiSchedule.setEmiDate(emiDate);
+            emiSchedule.setAddUser(addUser);
+            emiSchedule.setRemainingAmount(MoneyUtils.toRupees(remainingPaise));
             emiDate = emiDate.plusMonths(1);
             emiSchedules.add(emiSchedule);
         }
-
-        // Save the EMI schedules to the repository
-        emiRepository.saveAll(emiSchedules);
-        logger.info("EMI schedule generated successfully for loanId: {}", loanId);
+        return emiSchedules;
     }
 
     // Reducing balance formula
     public Double calculateEmiReducingBalAmt(@NotNull Double loanAmount, @NotNull Double interestRate, @NotNull Integer loanDuration) {
         logger.debug("Calculating EMI amount for loanAmount: {}, interestRate: {}, loanDuration: {}", loanAmount, interestRate, loanDuration);
 
-        // Calculate the monthly interest rate
-        Double monthlyInterestRate = interestRate / 100 / 12;
-
-        // Calculate the EMI using the formula
-        double emiAmount = (loanAmount * monthlyInterestRate * Math.pow(1 + monthlyInterestRate, loanDuration))
-                / (Math.pow(1 + monthlyInterestRate, loanDuration) - 1);
-
-        // Round the EMI amount to 2 decimal places
-        BigDecimal roundedEmiAmount = BigDecimal.valueOf(emiAmount).setScale(2, RoundingMode.HALF_UP);
-
-        logger.debug("Calculated EMI amount: {}", roundedEmiAmount);
+        long emiPaise = MoneyUtils.reducingBalanceInstalment(MoneyUtils.toPaise(loanAmount), MoneyUtils.toRateUnits(interestRate), loanDuration);
 
-        // Return the rounded EMI amount
-        return roundedEmiAmount.doubleValue();
+        logger.debug("Calculated EMI amount: {}", emiPaise);
+        return MoneyUtils.toRupees(emiPaise);
     }
 
-    // Flat rate formula
-    private Double calculateEmiAmount(@NotNull Double loanAmount, @NotNull Double interestRate, @NotNull Integer loanDuration) {
-        logger.debug("Calculating EMI amount using flat rate formula for loanAmount: {}, interestRate: {}, loanDuration: {}", loanAmount, interestRate, loanDuration);
-
-        // Calculate total interest
-        double totalInterest = loanAmount * (interestRate / 100) * (loanDuration / 12.0);
-
-        // Calculate total amount (principal + interest)
-        double totalAmount = loanAmount + totalInterest;
-
-        // Calculate EMI amount
-        double emiAmount = totalAmount / loanDuration;
-
-        // Round the EMI amount to 2 decimal places
-        BigDecimal roundedEmiAmount = BigDecimal.valueOf(emiAmount).setScale(2, RoundingMode.HALF_UP);
-
-        logger.debug("Calculated EMI amount using flat rate formula: {}", roundedEmiAmount);
-
-        // Return the rounded EMI amount
-        return roundedEmiAmount.doubleValue();
+    // First EMI and total interest of the schedule the given method builds for the whole loan
+    public EmiQuote quoteLoan(Long amortizationMethod, double loanAmount, double interestRate, int loanDuration,
+                              Double stepUpRate, Integer stepUpEveryMonths) {
+        return emiQuoteService.quote(amortizationMethod, loanAmount, interestRate, loanDuration, stepUpRate, stepUpEveryMonths);
     }
 
     public EmiCalculationResponse calculateEmi(EmiCalculationRequest emiCalculationRequest) {
@@ -143,24 +151,14 @@ public class EmiService {
 
             logger.info("Calculating EMI for loanAmount: {}, interestRate: {}, numberOfEmis: {}", loanAmount, interestRate, numberOfEmis);
 
-            // Calculate EMI amount
-            double emiAmount = calculateEmiAmount(loanAmount, interestRate, numberOfEmis);
-
-            // Round EMI amount to 2 decimal places
-            BigDecimal roundedEmiAmount = BigDecimal.valueOf(emiAmount).setScale(2, RoundingMode.HALF_UP);
-
-            // Calculate total amount payable and round to 2 decimal places
-            BigDecimal totalAmountPayable = BigDecimal.valueOf(roundedEmiAmount.doubleValue() * numberOfEmis)
-                    .setScale(2, RoundingMode.HALF_UP);
-
-            // Calculate total interest payable and round to 2 decimal places
-            BigDecimal totalInterestPayable = BigDecimal.valueOf(totalAmountPayable.doubleValue() - loanAmount)
-                    .setScale(2, RoundingMode.HALF_UP);
+            // Totals are exact, the first EMI is reported (step-up EMIs grow, the last EMI absorbs rounding)
+            EmiQuote quote = emiQuoteService.quote(emiCalculationRequest.getAmortizationMethod(), loanAmount, interestRate, numberOfEmis,
+                    emiCalculationRequest.getStepUpRate(), emiCalculationRequest.getStepUpEveryMonths());
 
             // Set values in the response object
-            response.setLoanEmi(roundedEmiAmount.doubleValue());
-            response.setTotalAmountPayable(totalAmountPayable.doubleValue());
-            response.setTotalInterestPayable(totalInterestPayable.doubleValue());
+            response.setLoanEmi(quote.getLoanEmi());
+            response.setTotalAmountPayable(quote.getTotalAmountPayable());
+            response.setTotalInterestPayable(quote.getTotalInterestPayable());
 
             logger.info("EMI calculation successful. EMI Amount: {}, Total Amount Payable: {}, Total Interest Payable: {}",
                     response.getLoanEmi(), response.getTotalAmountPayable(), response.getTotalInterestPayable());
@@ -198,18 +196,17 @@ public class EmiService {
             throw new IllegalArgumentException("Loan duration must be greater than zero");
         }
 
-        // Calculate percentage share and round to 2 decimal places
-        double percentageShare = (contributeAmount / loanAmount) * 100;
-        BigDecimal roundedPercentageShare = BigDecimal.valueOf(percentageShare).setScale(2, RoundingMode.HALF_UP);
-
-        // Calculate expected profit and round to 2 decimal places
-        double expectedProfit = contributeAmount * (interestRate / 100) * (loanDuration / 12.0);
-        BigDecimal roundedExpectedProfit = BigDecimal.valueOf(expectedProfit).setScale(2, RoundingMode.HALF_UP);
+        // Percentage share in hundredths of a percent and expected profit in paise, each rounded once
+        long contributePaise = MoneyUtils.toPaise(contributeAmount);
+        long percentageShare = MoneyUtils.percentageShare(contributePaise, MoneyUtils.toPaise(loanAmount), RoundingMode.HALF_UP);
+        long expectedProfit = MoneyUtils.simpleInterest(contributePaise, MoneyUtils.toRateUnits(interestRate), loanDuration, RoundingMode.HALF_UP);
+        double roundedPercentageShare = percentageShare / 100.0;
+        double roundedExpectedProfit = MoneyUtils.toRupees(expectedProfit);
 
         // Set values in the response object
         ContributionResponse response = new ContributionResponse();
-        response.setPercentageShare(roundedPercentageShare.doubleValue());
-        response.setExpectedProfit(roundedExpectedProfit.doubleValue());
+        response.setPercentageShare(roundedPercentageShare);
+        response.setExpectedProfit(roundedExpectedProfit);
 
         logger.info("Contribution calculated successfully. Percentage Share: {}, Expected Profit: {}",
                 roundedPercentageShare, roundedExpectedProfit);
@@ -249,23 +246,62 @@ public class EmiService {
         }
     }
 
-   public List<Emi> filterEmisBetweenDates(LocalDate startDate, LocalDate endDate, Long status) {
-       logger.info("Filtering EMIs between {} and {} with status {}", startDate, endDate, status);
-       try {
-           List<Emi> filteredEmis = emiRepository.findAll().stream()
-                   .filter(emi -> !emi.getEmiDate().isBefore(startDate) && !emi.getEmiDate().isAfter(endDate) && emi.getStatus().equals(status))
-                   .sorted(Comparator.comparing(Emi::getEmiDate)).toList();
-           if (filteredEmis.isEmpty()) {
-               logger.error("No EMIs found between {} and {} with status {}", startDate, endDate, status);
-           } else {
-               logger.info("Found {} EMIs between {} and {} with status {}", filteredEmis.size(), startDate, endDate, status);
-           }
-           return filteredEmis;
-       } catch (Exception e) {
-           logger.error("Error occurred while filtering EMIs: {}", e.getMessage());
-           return new ArrayList<>();
-       }
-   }
+    public List<Emi> filterEmisBetweenDates(LocalDate startDate, LocalDate endDate, Long status) {
+        return filterEmisBetweenDates(startDate, endDate, status, true);
+    }
+
+    public List<Emi> filterEmisBetweenDates(LocalDate startDate, LocalDate endDate, Long status, boolean ascending) {
+        logger.info("Filtering EMIs between {} and {} with status {}", startDate, endDate, status);
+        try {
+            List<Emi> filteredEmis = ascending
+                    ? emiRepository.findByStatusAndEmiDateBetweenAsc(status, startDate, endDate)
+                    : emiRepository.findByStatusAndEmiDateBetweenDesc(status, startDate, endDate);
+            if (filteredEmis.isEmpty()) {
+                logger.error("No EMIs found between {} and {} with status {}", startDate, endDate, status);
+            } else {
+                logger.info("Found {} EMIs between {} and {} with status {}", filteredEmis.size(), startDate, endDate, status);
+            }
+            return filteredEmis;
+        } catch (Exception e) {
+            logger.error("Error occurred while filtering EMIs: {}", e.getMessage());
+            return new ArrayList<>();
+        }
+    }
+
+    public EmiPageResponse getEmiPageBetweenDates(LocalDate startDate, LocalDate endDate, Long status,
+                                                  LocalDate lastEmiDate, Long lastEmiId, int size, boolean ascending) {
+        logger.info("Fetching EMI page between {} and {} with status {} after ({}, {})", startDate, endDate, status, lastEmiDate, lastEmiId);
+        if (size <= 0 || size > MAX_EMI_PAGE_SIZE) {
+            throw new IllegalArgumentException("Page size must be between 1 and " + MAX_EMI_PAGE_SIZE);
+        }
+
+        // Without a cursor start just outside the window so the first page is covered by the same keyset predicate
+        LocalDate cursorDate = lastEmiDate;
+        Long cursorId = lastEmiId;
+        if (cursorDate == null || cursorId == null) {
+            cursorDate = ascending ? startDate.minusDays(1) : endDate.plusDays(1);
+            cursorId = ascending ? 0L : Long.MAX_VALUE;
+        }
+
+        // Fetch one extra row to know whether another page exists
+        Pageable limit = PageRequest.of(0, size + 1);
+        List<Emi> rows = ascending
+                ? emiRepository.findNextByStatusAndEmiDateAsc(status, startDate, endDate, cursorDate, cursorId, limit)
+                : emiRepository.findNextByStatusAndEmiDateDesc(status, startDate, endDate, cursorDate, cursorId, limit);
+
+        EmiPageResponse response = new EmiPageResponse();
+        boolean hasMore = rows.size() > size;
+        List<Emi> emis = hasMore ? rows.subList(0, size) : rows;
+        response.setEmis(emis);
+        response.setHasMore(hasMore);
+        if (hasMore) {
+            Emi last = emis.getLast();
+            response.setNextEmiDate(last.getEmiDate());
+            response.setNextEmiId(last.getEmiId());
+        }
+        logger.info("Found {} EMIs for page, hasMore: {}", emis.size(), hasMore);
+        return response;
+    }
 
     public List<Emi> findByLoanIdOrderByEmiDateAsc(Long loanId) {
         logger.info("Fetching EMIs for loan ID: {}", loanId);
@@ -291,42 +327,59 @@ public class EmiService {
     }
 
     public void receiveEmiPayment(EmiUpdateReq receivedPaymentReq) {
+        processEmiPayment(receivedPaymentReq, () -> {
+            if (receivedPaymentReq.getBase64Image() == null) {
+                return null;
+            }
+            String filePath = bucketUtils3.uploadImageToS3Bucket(receivedPaymentReq.getBase64Image());
+            if (filePath.equals("Error")) {
+                logger.error("Error uploading file to S3 for emi id: {}", receivedPaymentReq.getEmiId());
+                throw new FileUploadException("Error: Uploading file to S3");
+            }
+            return filePath;
+        });
+    }
+
+    // Same as above with the receipt streamed from a multipart part instead of a base64 string
+    public void receiveEmiPayment(EmiUpdateReq receivedPaymentReq, MultipartFile receipt) {
+        processEmiPayment(receivedPaymentReq, () -> receipt == null || receipt.isEmpty()
+                ? null : bucketUtils3.uploadFileToS3Bucket(receipt).key());
+    }
+
+    private void processEmiPayment(EmiUpdateReq receivedPaymentReq, Supplier<String> receiptUpload) {
         logger.info("Processing payment for EMI ID: {}", receivedPaymentReq.getEmiId());
         try {
-            Optional<Emi> emiOptional = emiRepository.findById(receivedPaymentReq.getEmiId());
-            if (emiOptional.isEmpty()) {
-                logger.error("EMI not found with ID: {}", receivedPaymentReq.getEmiId());
-                throw new LoanCustomException("EMI not found with ID: " + receivedPaymentReq.getEmiId());
-            }
+            // The receipt is uploaded before the transaction starts, so no DB connection is held during the PUT
+            String uploadedFilePath = receiptUpload.get();
+            Long userId = jwtUtils.getLoggedInUserDetails().getId();
+
+            transactionTemplate.executeWithoutResult(status -> {
+                Optional<Emi> emiOptional = emiRepository.findById(receivedPaymentReq.getEmiId());
+                if (emiOptional.isEmpty()) {
+                    logger.error("EMI not found with ID: {}", receivedPaymentReq.getEmiId());
+                    throw new LoanCustomException("EMI not found with ID: " + receivedPaymentReq.getEmiId());
+                }
 
-            Emi emi = emiOptional.get();
-            emi.setEmiReceivedAmount(receivedPaymentReq.getAmountReceivedAmount());
-            emi.setStatus(receivedPaymentReq.getStatusId()); // Paid
-            emi.setPaymentMode(receivedPaymentReq.getPaymentType());
-            emi.setNotes(receivedPaymentReq.getNotes());
-            emi.setEmiReceivedDate(DateUtils.getDateFromString(receivedPaymentReq.getPaymentReceivedDate(), DateUtils.YMD));
-            emi.setReceiverName(receivedPaymentReq.getReceiverName());
-            emi.setEmiDate(DateUtils.getDateFromString(receivedPaymentReq.getEmiDate(), DateUtils.YMD));
-            emi.setUpdatedUser(jwtUtils.getLoggedInUserDetails().getId());
-
-            String filePath = null;
-            if (receivedPaymentReq.getBase64Image() != null) {
-                filePath = bucketUtils3.uploadImageToS3Bucket(receivedPaymentReq.getBase64Image());
-                if (filePath.equals("Error")) {
-                    logger.error("Error uploading file to S3 for emi id: {}", receivedPaymentReq.getEmiId());
-                    throw new FileUploadException("Error: Uploading file to S3");
+                Emi emi = emiOptional.get();
+                emi.setEmiReceivedAmount(receivedPaymentReq.getAmountReceivedAmount());
+                emi.setStatus(receivedPaymentReq.getStatusId()); // Paid
+                emi.setPaymentMode(receivedPaymentReq.getPaymentType());
+                emi.setNotes(receivedPaymentReq.getNotes());
+                emi.setEmiReceivedDate(DateUtils.getDateFromString(receivedPaymentReq.getPaymentReceivedDate(), DateUtils.YMD));
+                emi.setReceiverName(receivedPaymentReq.getReceiverName());
+                emi.setEmiDate(DateUtils.getDateFromString(receivedPaymentReq.getEmiDate(), DateUtils.YMD));
+                emi.setUpdatedUser(userId);
+                if (uploadedFilePath != null) {
+                    emi.setFilePath(uploadedFilePath);
                 }
-                emi.setFilePath(filePath);
-            }
-            emiRepository.save(emi);
+                // Flushed first so the summary query sees the payment
+                emiRepository.saveAndFlush(emi);
+                loanRepaymentSummaryService.refresh(emi.getLoanId());
+            });
             logger.info("Payment processed successfully for EMI ID: {}", receivedPaymentReq.getEmiId());
         } catch (Exception e) {
             logger.error("Error occurred while processing payment for EMI ID: {}: {}", receivedPaymentReq.getEmiId(), e.getMessage());
             throw new LoanCustomException("Failed to process payment");
         }
     }
-
-    public List<Object[]> findEmiSummaryByLoanId(Long loanId) {
-        return emiRepository.findEmiSummaryByLoanId(loanId);
-    }
 }
\ No newline at end of file
@@ -0,0 +1,189 @@
+package com.krunal.loan.service.impl;
+
+import com.krunal.loan.models.Emi;
+import com.krunal.loan.models.Loan;
+import com.krunal.loan.models.LoanStatus;
+import com.krunal.loan.payload.request.EmiScheduleRequest;
+import com.krunal.loan.payload.response.BulkLoanActionResponse;
+import com.krunal.loan.payload.response.LoanActionResult;
+import com.krunal.loan.repository.EmiJdbcRepository;
+import com.krunal.loan.repository.LoanRepository;
+import com.krunal.loan.security.jwt.JwtUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+
+@Service
+public class LoanApprovalService {
+    private static final Logger logger = LoggerFactory.getLogger(LoanApprovalService.class);
+    private static final int MAX_BULK_LOANS = 1000;
+    private static final String LOAN_NOT_FOUND = "Loan not found";
+    private static final String LOAN_STATUS_NOT_PENDING = "Loan status is not pending";
+    private static final String LOAN_STATUS_CHANGED = "Loan was changed by another request, no changes applied for this loan";
+
+    private final LoanRepository loanRepository;
+    private final EmiService emiService;
+    private final EmiJdbcRepository emiJdbcRepository;
+    private final JwtUtils jwtUtils;
+    private final TransactionTemplate transactionTemplate;
+    private final LoanRepaymentSummaryService loanRepaymentSummaryService;
+    private final int chunkSize;
+
+    public LoanApprovalService(LoanRepository loanRepository, EmiService emiService, EmiJdbcRepository emiJdbcRepository,
+                               JwtUtils jwtUtils, TransactionTemplate transactionTemplate,
+                               LoanRepaymentSummaryService loanRepaymentSummaryService,
+                               @Value("${loan.app.bulkApprovalChunkSize:50}") int chunkSize) {
+        this.loanRepository = loanRepository;
+        this.loanRepaymentSummaryService = loanRepaymentSummaryService;
+        this.emiService = emiService;
+        this.emiJdbcRepository = emiJdbcRepository;
+        this.jwtUtils = jwtUtils;
+        this.transactionTemplate = transactionTemplate;
+        this.chunkSize = chunkSize > 0 ? chunkSize : 50;
+    }
+
+    /**
+     * Approves pending loans. Schedules are computed in parallel in memory, then each chunk of loans is
+     * persisted in one transaction, so a failure only rolls back the loans of its own chunk. Loans changed by
+     * another request in the meantime fail on their own, the rest of their chunk is still approved.
+     */
+    public BulkLoanActionResponse approveLoans(List<Long> loanIds) {
+        List<Long> ids = distinctIds(loanIds);
+        logger.info("Bulk approving {} loans", ids.size());
+        // The security context is bound to the request thread, read it before going parallel
+        Long userId = jwtUtils.getLoggedInUserDetails().getId();
+
+        Map<Long, LoanActionResult> results = new ConcurrentHashMap<>();
+        List<Loan> pendingLoans = loadPendingLoans(ids, results);
+
+        Map<Long, List<Emi>> schedules = new ConcurrentHashMap<>();
+        pendingLoans.parallelStream().forEach(loan -> {
+            try {
+                schedules.put(loan.getId(), emiService.buildEmiSchedule(EmiScheduleRequest.of(loan), userId));
+            } catch (RuntimeException e) {
+                logger.error("Error building EMI schedule for loan id {}: {}", loan.getId(), e.getMessage());
+                results.put(loan.getId(), new LoanActionResult(loan.getId(), false, e.getMessage()));
+            }
+        });
+
+        Map<Long, Loan> snapshots = new HashMap<>();
+        pendingLoans.forEach(loan -> snapshots.put(loan.getId(), loan));
+        List<Long> approvable = pendingLoans.stream().map(Loan::getId).filter(schedules::containsKey).toList();
+        for (List<Long> chunk : chunks(approvable)) {
+            // Schedules were built from the snapshots, so a loan edited since then must not be approved with them
+            processChunk(chunk, snapshots, LoanStatus.ACTIVE.getCode(), userId, true, results, approved -> {
+                List<Emi> emis = new ArrayList<>();
+                approved.forEach(loanId -> emis.addAll(schedules.get(loanId)));
+                emiJdbcRepository.insertSchedule(emis);
+                loanRepaymentSummaryService.refresh(approved);
+            }, "Loan account approved successfully!");
+        }
+        return toResponse(ids, results);
+    }
+
+    public BulkLoanActionResponse rejectLoans(List<Long> loanIds) {
+        List<Long> ids = distinctIds(loanIds);
+        logger.info("Bulk rejecting {} loans", ids.size());
+        Long userId = jwtUtils.getLoggedInUserDetails().getId();
+
+        Map<Long, LoanActionResult> results = new HashMap<>();
+        List<Long> rejectable = loadPendingLoans(ids, results).stream().map(Loan::getId).toList();
+        for (List<Long> chunk : chunks(rejectable)) {
+            // Edits do not matter for a rejection, only the status is guarded
+            processChunk(chunk, Map.of(), LoanStatus.REJECTED.getCode(), userId, false, results, rejected -> { },
+                    "Loan account rejected successfully!");
+        }
+        return toResponse(ids, results);
+    }
+
+    /**
+     * Moves the loans of one chunk out of PENDING in a single transaction, one guarded update per loan. Loans no
+     * longer pending (or, with checkUnchanged, edited since their snapshot was read) fail on their own and the
+     * others go through. afterUpdate runs in the same transaction for the updated loans.
+     */
+    private void processChunk(List<Long> chunk, Map<Long, Loan> snapshots, Long newStatus, Long userId, boolean checkUnchanged,
+                              Map<Long, LoanActionResult> results, Consumer<List<Long>> afterUpdate, String successMessage) {
+        Long pending = LoanStatus.PENDING.getCode();
+        try {
+            List<Long> updated = transactionTemplate.execute(status -> {
+                List<Long> applied = new ArrayList<>(chunk.size());
+                for (Long loanId : chunk) {
+                    int count = checkUnchanged
+                            ? loanRepository.updateStatusIfUnchanged(loanId, pending, snapshots.get(loanId).getUpdatedDate(), newStatus, userId)
+                            : loanRepository.updateStatusByLoanIds(List.of(loanId), pending, newStatus, userId);
+                    if (count > 0) {
+                        applied.add(loanId);
+                    }
+                }
+                if (!applied.isEmpty()) {
+                    afterUpdate.accept(applied);
+                }
+                return applied;
+            });
+            Set<Long> applied = new HashSet<>(Objects.requireNonNull(updated));
+            for (Long loanId : chunk) {
+                results.put(loanId, applied.contains(loanId)
+                        ? new LoanActionResult(loanId, true, successMessage)
+                        : new LoanActionResult(loanId, false, LOAN_STATUS_CHANGED));
+            }
+            if (applied.size() < chunk.size()) {
+                logger.warn("{} of {} loans in chunk {} were changed by another request", chunk.size() - applied.size(), chunk.size(), chunk);
+            }
+        } catch (Exception e) {
+            logger.error("Error processing loan chunk {}: {}", chunk, e.getMessage(), e);
+            chunk.forEach(loanId -> results.put(loanId, new LoanActionResult(loanId, false, e.getMessage())));
+        }
+    }
+
+    private List<Loan> loadPendingLoans(List<Long> ids, Map<Long, LoanActionResult> results) {
+        Map<Long, Loan> loansById = new HashMap<>();
+        loanRepository.findAllById(ids).forEach(loan -> loansById.put(loan.getId(), loan));
+
+        List<Loan> pendingLoans = new ArrayList<>();
+        for (Long loanId : ids) {
+            Loan loan = loansById.get(loanId);
+            if (loan == null) {
+                results.put(loanId, new LoanActionResult(loanId, false, LOAN_NOT_FOUND));
+            } else if (!Objects.equals(loan.getStatus(), LoanStatus.PENDING.getCode())) {
+                results.put(loanId, new LoanActionResult(loanId, false, LOAN_STATUS_NOT_PENDING));
+            } else {
+                pendingLoans.add(loan);
+            }
+        }
+        return pendingLoans;
+    }
+
+    private static List<Long> distinctIds(List<Long> loanIds) {
+        if (loanIds == null || loanIds.isEmpty()) {
+            throw new IllegalArgumentException("Loan ids must not be empty");
+        }
+        List<Long> ids = loanIds.stream().filter(Objects::nonNull).distinct().toList();
+        if (ids.size() > MAX_BULK_LOANS) {
+            throw new IllegalArgumentException("At most " + MAX_BULK_LOANS + " loans can be processed at once");
+        }
+        return ids;
+    }
+
+    private List<List<Long>> chunks(List<Long> ids) {
+        List<List<Long>> chunks = new ArrayList<>();
+        for (int i = 0; i < ids.size(); i += chunkSize) {
+            chunks.add(ids.subList(i, Math.min(i + chunkSize, ids.size())));
+        }
+        return chunks;
+    }
+
+    // Results are reported in request order
+    private static BulkLoanActionResponse toResponse(List<Long> ids, Map<Long, LoanActionResult> results) {
+        List<LoanActionResult> ordered = new ArrayList<>(ids.size());
+        ids.forEach(loanId -> ordered.add(results.get(loanId)));
+        BulkLoanActionResponse response = BulkLoanActionResponse.of(ordered);
+        logger.info("Bulk loan action finished: {} succeeded, {} failed", response.getSucceeded(), response.getFailed());
+        return response;
+    }
+}
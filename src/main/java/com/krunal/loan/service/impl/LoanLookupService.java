@@ -0,0 +1,64 @@
+package com.krunal.loan.service.impl;
+
+import com.krunal.loan.models.Loan;
+import com.krunal.loan.models.LoanContributor;
+import com.krunal.loan.repository.LoanRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+
+import java.util.*;
+
+@Service
+public class LoanLookupService {
+    private static final Logger logger = LoggerFactory.getLogger(LoanLookupService.class);
+    private final LoanRepository loanRepository;
+
+    public LoanLookupService(LoanRepository loanRepository) {
+        this.loanRepository = loanRepository;
+    }
+
+    // Latest loans with the borrower name filled in from the same join query
+    public List<Loan> getRecentLoans(int limit) {
+        List<Object[]> results = loanRepository.findRecentWithBorrowerName(PageRequest.of(0, limit));
+        List<Loan> loans = new ArrayList<>(results.size());
+        for (Object[] result : results) {
+            Loan loan = (Loan) result[0];
+            loan.setBorrowerName((String) result[1]);
+            loans.add(loan);
+        }
+        logger.debug("Fetched {} recent loans with borrower names", loans.size());
+        return loans;
+    }
+
+    // Sets loanAccount and loanDuration on every contributor row with one lookup for all referenced loans
+    public void applyLoanAccounts(List<LoanContributor> contributors) {
+        if (contributors == null || contributors.isEmpty()) {
+            return;
+        }
+        Set<Long> loanIds = new HashSet<>();
+        contributors.forEach(contributor -> {
+            if (contributor.getLoanId() != null) {
+                loanIds.add(contributor.getLoanId());
+            }
+        });
+        if (loanIds.isEmpty()) {
+            return;
+        }
+
+        Map<Long, Object[]> loansById = new HashMap<>();
+        for (Object[] result : loanRepository.findLoanAccountsByIds(loanIds)) {
+            loansById.put((Long) result[0], result);
+        }
+        logger.debug("Resolved {} of {} loan accounts for contributors", loansById.size(), loanIds.size());
+
+        contributors.forEach(contributor -> {
+            Object[] loan = loansById.get(contributor.getLoanId());
+            if (loan != null) {
+                contributor.setLoanAccount((String) loan[1]);
+                contributor.setLoanDuration((Integer) loan[2]);
+            }
+        });
+    }
+}
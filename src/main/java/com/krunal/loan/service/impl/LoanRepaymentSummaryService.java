@@ -0,0 +1,76 @@
+package com.krunal.loan.service.impl;
+
+import com.krunal.loan.common.MoneyUtils;
+import com.krunal.loan.models.Loan;
+import com.krunal.loan.models.LoanRepaymentSummary;
+import com.krunal.loan.repository.LoanRepaymentSummaryRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+@Service
+public class LoanRepaymentSummaryService {
+    private static final Logger logger = LoggerFactory.getLogger(LoanRepaymentSummaryService.class);
+
+    private final LoanRepaymentSummaryRepository loanRepaymentSummaryRepository;
+
+    public LoanRepaymentSummaryService(LoanRepaymentSummaryRepository loanRepaymentSummaryRepository) {
+        this.loanRepaymentSummaryRepository = loanRepaymentSummaryRepository;
+    }
+
+    /**
+     * Recomputes the repayment summary of the given loans. Call it in the transaction that changed their EMIs,
+     * after the changes are flushed, so the summary commits or rolls back together with them.
+     */
+    public void refresh(Collection<Long> loanIds) {
+        if (loanIds == null || loanIds.isEmpty()) {
+            return;
+        }
+        int rows = loanRepaymentSummaryRepository.refreshByLoanIds(loanIds);
+        logger.debug("Refreshed repayment summary of {} loans, {} rows affected", loanIds.size(), rows);
+    }
+
+    public void refresh(Long loanId) {
+        refresh(List.of(loanId));
+    }
+
+    /**
+     * Stores the summary of a loan that has no schedule yet, nothing received against duration * EMI. Call it
+     * whenever a pending loan is created or its terms change, approval then replaces it from the EMIs.
+     */
+    public void initialize(Loan loan) {
+        double totalAmount = MoneyUtils.toRupees(scheduledTotalPaise(loan));
+        loanRepaymentSummaryRepository.save(new LoanRepaymentSummary(loan.getId(), totalAmount, 0.0, 0, totalAmount, null, LocalDateTime.now()));
+    }
+
+    /**
+     * Copies the stored repayment summary onto the loan, a single primary key read. Loans saved before summaries
+     * existed are filled by the loan_repayment_summaries.sql backfill, until then they report nothing received.
+     */
+    public void applyTo(Loan loan) {
+        LoanRepaymentSummary summary = loanRepaymentSummaryRepository.findById(loan.getId()).orElse(null);
+        if (summary == null) {
+            double totalAmount = MoneyUtils.toRupees(scheduledTotalPaise(loan));
+            loan.setTotalAmount(totalAmount);
+            loan.setReceivedAmount(0.0);
+            loan.setReceivedEmis(0);
+            loan.setOutstandingAmount(totalAmount);
+            loan.setNextDueDate(null);
+        } else {
+            loan.setTotalAmount(summary.getTotalAmount());
+            loan.setReceivedAmount(summary.getReceivedAmount());
+            loan.setReceivedEmis(summary.getReceivedEmis());
+            loan.setOutstandingAmount(summary.getOutstandingAmount());
+            loan.setNextDueDate(summary.getNextDueDate());
+        }
+        loan.setRemainingEmis(loan.getLoanDuration() - loan.getReceivedEmis());
+    }
+
+    private static long scheduledTotalPaise(Loan loan) {
+        return MoneyUtils.toPaise(loan.getEmpPerMonth()) * loan.getLoanDuration();
+    }
+}
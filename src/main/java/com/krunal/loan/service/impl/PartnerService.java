@@ -0,0 +1,63 @@
+package com.krunal.loan.service.impl;
+
+import com.krunal.loan.payload.response.ContributorSummary;
+import com.krunal.loan.repository.LoanContributorRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+
+import java.util.*;
+
+@Service
+public class PartnerService {
+    private static final Logger logger = LoggerFactory.getLogger(PartnerService.class);
+    private final LoanContributorRepository contributorRepository;
+
+    public PartnerService(LoanContributorRepository contributorRepository) {
+        this.contributorRepository = contributorRepository;
+    }
+
+    // Summaries of every contributor, keyed by contributor id, from one grouped query
+    public Map<Long, ContributorSummary> getContributorSummaries() {
+        List<Object[]> results = contributorRepository.findContributorSummaries();
+        logger.debug("Fetched contributor summaries for {} contributors", results.size());
+        return toSummaryMap(results);
+    }
+
+    public Map<Long, ContributorSummary> getContributorSummaries(Collection<Long> contributorIds) {
+        if (contributorIds == null || contributorIds.isEmpty()) {
+            return Collections.emptyMap();
+        }
+        List<Object[]> results = contributorRepository.findContributorSummariesByContributorIds(contributorIds);
+        logger.debug("Fetched contributor summaries for {} of {} contributors", results.size(), contributorIds.size());
+        return toSummaryMap(results);
+    }
+
+    public ContributorSummary getContributorSummary(Long contributorId) {
+        List<Object[]> results = contributorRepository.findContributorSummaryByContributorId(contributorId);
+        if (results != null && !results.isEmpty()) {
+            Object[] result = results.getFirst();
+            return toSummary(result[0], result[1], result[2]);
+        }
+        return null;
+    }
+
+    private Map<Long, ContributorSummary> toSummaryMap(List<Object[]> results) {
+        Map<Long, ContributorSummary> summaries = new HashMap<>();
+        for (Object[] result : results) {
+            if (result[0] != null) {
+                summaries.put(((Number) result[0]).longValue(), toSummary(result[1], result[2], result[3]));
+            }
+        }
+        return summaries;
+    }
+
+    private ContributorSummary toSummary(Object invested, Object netProfit, Object loans) {
+        Double investedAmount = invested != null ? ((Number) invested).doubleValue() : 0.0;
+        Double netProfitAmount = netProfit != null ? ((Number) netProfit).doubleValue() : 0.0;
+        Long noOfLoans = loans != null ? ((Number) loans).longValue() : 0L;
+        Double totalAmount = investedAmount + netProfitAmount;
+
+        return new ContributorSummary(investedAmount, netProfitAmount, totalAmount, noOfLoans);
+    }
+}
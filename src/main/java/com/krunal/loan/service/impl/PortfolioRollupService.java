@@ -0,0 +1,112 @@
+package com.krunal.loan.service.impl;
+
+import com.krunal.loan.models.PortfolioDailyRollup;
+import com.krunal.loan.models.RollupWatermark;
+import com.krunal.loan.repository.PortfolioDailyRollupRepository;
+import com.krunal.loan.repository.PortfolioRollupJdbcRepository;
+import com.krunal.loan.repository.RollupWatermarkRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+
+@Service
+public class PortfolioRollupService {
+    private static final Logger logger = LoggerFactory.getLogger(PortfolioRollupService.class);
+    private static final String WATERMARK_ID = "portfolio_daily_rollup";
+    // Changed days closer than this are recomputed with one range query instead of one query per day
+    private static final int MAX_GAP_DAYS = 7;
+
+    private final PortfolioRollupJdbcRepository portfolioRollupJdbcRepository;
+    private final PortfolioDailyRollupRepository portfolioDailyRollupRepository;
+    private final RollupWatermarkRepository rollupWatermarkRepository;
+    private final long lagMs;
+
+    public PortfolioRollupService(PortfolioRollupJdbcRepository portfolioRollupJdbcRepository,
+                                  PortfolioDailyRollupRepository portfolioDailyRollupRepository,
+                                  RollupWatermarkRepository rollupWatermarkRepository,
+                                  @Value("${loan.app.rollup.lagMs:60000}") long lagMs) {
+        this.portfolioRollupJdbcRepository = portfolioRollupJdbcRepository;
+        this.portfolioDailyRollupRepository = portfolioDailyRollupRepository;
+        this.rollupWatermarkRepository = rollupWatermarkRepository;
+        this.lagMs = Math.max(lagMs, 0);
+    }
+
+    /**
+     * Recomputes the rollup days touched by rows updated since the last run. The scan starts lagMs before the
+     * watermark so rows committed late by a long transaction are still picked up, recomputing a day is idempotent.
+     */
+    @Scheduled(initialDelayString = "${loan.app.rollup.initialDelayMs:30000}", fixedDelayString = "${loan.app.rollup.refreshMs:300000}")
+    public void refreshIncremental() {
+        LocalDateTime runStart = LocalDateTime.now();
+        RollupWatermark watermark = rollupWatermarkRepository.findById(WATERMARK_ID).orElse(null);
+        if (watermark == null || watermark.getWatermark() == null) {
+            logger.info("No portfolio rollup watermark found, rebuilding");
+            rebuild();
+            return;
+        }
+        LocalDateTime since = watermark.getWatermark().minus(lagMs, ChronoUnit.MILLIS);
+        int days = refreshDays(portfolioRollupJdbcRepository.findChangedDays(since));
+        rollupWatermarkRepository.save(new RollupWatermark(WATERMARK_ID, runStart));
+        logger.info("Portfolio rollup refreshed {} days changed since {}", days, since);
+    }
+
+    /**
+     * Recomputes every day. Runs nightly to pick up what the watermark cannot see, such as deleted loans or an
+     * EMI moved to another date.
+     */
+    @Scheduled(cron = "${loan.app.rollup.rebuildCron:0 30 2 * * *}")
+    public void rebuild() {
+        LocalDateTime runStart = LocalDateTime.now();
+        int days = refreshDays(portfolioRollupJdbcRepository.findChangedDays(null));
+        rollupWatermarkRepository.save(new RollupWatermark(WATERMARK_ID, runStart));
+        logger.info("Portfolio rollup rebuilt {} days", days);
+    }
+
+    // Totals of the rollup days between from and to, both inclusive
+    public PortfolioDailyRollup getTotals(LocalDate from, LocalDate to) {
+        PortfolioDailyRollup totals = new PortfolioDailyRollup();
+        getDailyRollups(from, to).forEach(totals::add);
+        return totals;
+    }
+
+    public List<PortfolioDailyRollup> getDailyRollups(LocalDate from, LocalDate to) {
+        return portfolioDailyRollupRepository.findByRollupDateBetween(from, to);
+    }
+
+    private int refreshDays(Set<LocalDate> changedDays) {
+        if (changedDays.isEmpty()) {
+            return 0;
+        }
+        int refreshed = 0;
+        LocalDate runStart = null;
+        LocalDate runEnd = null;
+        for (LocalDate day : new TreeSet<>(changedDays)) {
+            if (runStart != null && ChronoUnit.DAYS.between(runEnd, day) > MAX_GAP_DAYS) {
+                refreshed += refreshRange(runStart, runEnd);
+                runStart = null;
+            }
+            if (runStart == null) {
+                runStart = day;
+            }
+            runEnd = day;
+        }
+        refreshed += refreshRange(runStart, runEnd);
+        return refreshed;
+    }
+
+    private int refreshRange(LocalDate from, LocalDate to) {
+        List<PortfolioDailyRollup> rollups = List.copyOf(portfolioRollupJdbcRepository.aggregate(from, to).values());
+        portfolioRollupJdbcRepository.replaceDays(rollups);
+        logger.debug("Recomputed portfolio rollup from {} to {}", from, to);
+        return rollups.size();
+    }
+}
@@ -0,0 +1,231 @@
+package com.krunal.loan.storage;
+
+import com.krunal.loan.common.HashUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Primary;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+/**
+ * Keeps recently read objects on local disk in front of the configured store, bounded by a byte budget and
+ * evicted least recently used first. Writes and deletes through this store drop or replace the cached copy,
+ * objects changed directly in the underlying store are not seen until they are evicted.
+ */
+@Component
+@Primary
+@ConditionalOnProperty(name = "loan.app.fileCache.enabled", havingValue = "true")
+public class CachingFileStore implements FileStore {
+    private static final Logger logger = LoggerFactory.getLogger(CachingFileStore.class);
+
+    private final FileStore delegate;
+    private final Path cacheDir;
+    private final long maxBytes;
+    // Cache file name to size in bytes, in access order
+    private final LinkedHashMap<String, Long> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private long totalBytes;
+
+    public CachingFileStore(FileStore delegate,
+                            @Value("${loan.app.fileCache.dir:${java.io.tmpdir}/loan-file-cache}") String cacheDir,
+                            @Value("${loan.app.fileCache.maxBytes:536870912}") long maxBytes) {
+        if (maxBytes <= 0) {
+            throw new IllegalArgumentException("loan.app.fileCache.maxBytes must be greater than zero");
+        }
+        this.delegate = delegate;
+        this.cacheDir = Path.of(cacheDir).toAbsolutePath().normalize();
+        this.maxBytes = maxBytes;
+        loadExistingEntries();
+        logger.info("File cache at {} holding {} of {} bytes in front of {}", this.cacheDir, totalBytes, maxBytes,
+                delegate.getClass().getSimpleName());
+    }
+
+    @Override
+    public void put(String key, InputStream content, long contentLength, String contentType) {
+        String fileName = fileName(key);
+        remove(fileName);
+        delegate.put(key, content, contentLength, contentType);
+        // A read that raced the upload may have cached the previous content again
+        remove(fileName);
+    }
+
+    // The content is already in memory, so it is cached on the way through
+    @Override
+    public void put(String key, byte[] content, String contentType) {
+        delegate.put(key, content, contentType);
+        cache(key, content);
+    }
+
+    @Override
+    public byte[] get(String key) {
+        String fileName = fileName(key);
+        if (isCached(fileName)) {
+            try {
+                byte[] content = Files.readAllBytes(cacheDir.resolve(fileName));
+                logger.debug("Served key: {} from the file cache", key);
+                return content;
+            } catch (IOException e) {
+                // Evicted by another thread or removed from disk, read through instead
+                logger.warn("Error reading cached key {}: {}", key, e.getMessage());
+                remove(fileName);
+            }
+        }
+        byte[] content = delegate.get(key);
+        cache(key, content);
+        return content;
+    }
+
+    @Override
+    public boolean exists(String key) {
+        return delegate.exists(key);
+    }
+
+    @Override
+    public void delete(Collection<String> keys) {
+        if (keys == null || keys.isEmpty()) {
+            return;
+        }
+        keys.forEach(key -> remove(fileName(key)));
+        delegate.delete(keys);
+    }
+
+    @Override
+    public boolean supportsUrls() {
+        return delegate.supportsUrls();
+    }
+
+    @Override
+    public String getUrl(String key, Duration ttl) {
+        return delegate.getUrl(key, ttl);
+    }
+
+    // Writes a temp file and moves it into place, then evicts until the cache fits its budget again
+    private void cache(String key, byte[] content) {
+        if (content.length > maxBytes) {
+            return;
+        }
+        String fileName = fileName(key);
+        Path temp = null;
+        try {
+            temp = Files.createTempFile(cacheDir, ".cache", ".tmp");
+            Files.write(temp, content);
+            Files.move(temp, cacheDir.resolve(fileName), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            logger.warn("Error caching key {}: {}", key, e.getMessage());
+            deleteQuietly(temp);
+            return;
+        }
+
+        List<String> evicted = new ArrayList<>();
+        synchronized (entries) {
+            Long previous = entries.put(fileName, (long) content.length);
+            totalBytes += content.length - (previous != null ? previous : 0L);
+            Iterator<Map.Entry<String, Long>> eldest = entries.entrySet().iterator();
+            while (totalBytes > maxBytes && eldest.hasNext()) {
+                Map.Entry<String, Long> entry = eldest.next();
+                if (entry.getKey().equals(fileName)) {
+                    continue;
+                }
+                totalBytes -= entry.getValue();
+                evicted.add(entry.getKey());
+                eldest.remove();
+            }
+        }
+        evicted.forEach(name -> deleteQuietly(cacheDir.resolve(name)));
+        if (!evicted.isEmpty()) {
+            logger.debug("Evicted {} files from the file cache", evicted.size());
+        }
+    }
+
+    private boolean isCached(String fileName) {
+        synchronized (entries) {
+            return entries.get(fileName) != null;
+        }
+    }
+
+    private void remove(String fileName) {
+        synchronized (entries) {
+            Long size = entries.remove(fileName);
+            if (size != null) {
+                totalBytes -= size;
+            }
+        }
+        deleteQuietly(cacheDir.resolve(fileName));
+    }
+
+    // Cached files survive restarts, they are indexed oldest access first
+    private void loadExistingEntries() {
+        try {
+            Files.createDirectories(cacheDir);
+            List<Path> files;
+            try (Stream<Path> stream = Files.list(cacheDir)) {
+                files = stream.filter(Files::isRegularFile).toList();
+            }
+            List<Path> ordered = new ArrayList<>();
+            for (Path file : files) {
+                if (file.getFileName().toString().endsWith(".tmp")) {
+                    deleteQuietly(file);
+                } else {
+                    ordered.add(file);
+                }
+            }
+            ordered.sort(Comparator.comparing(CachingFileStore::lastModified));
+            for (Path file : ordered) {
+                long size = Files.size(file);
+                entries.put(file.getFileName().toString(), size);
+                totalBytes += size;
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot open file cache directory " + cacheDir, e);
+        }
+        // The budget may have been lowered since the last run
+        Iterator<Map.Entry<String, Long>> eldest = entries.entrySet().iterator();
+        while (totalBytes > maxBytes && eldest.hasNext()) {
+            Map.Entry<String, Long> entry = eldest.next();
+            totalBytes -= entry.getValue();
+            deleteQuietly(cacheDir.resolve(entry.getKey()));
+            eldest.remove();
+        }
+    }
+
+    // Keys are hashed into flat file names, so any key maps to one safe name inside the cache directory
+    private static String fileName(String key) {
+        return HashUtils.sha256Hex(key);
+    }
+
+    private static FileTime lastModified(Path file) {
+        try {
+            return Files.getLastModifiedTime(file);
+        } catch (IOException e) {
+            return FileTime.fromMillis(0);
+        }
+    }
+
+    private static void deleteQuietly(Path path) {
+        if (path == null) {
+            return;
+        }
+        try {
+            Files.deleteIfExists(path);
+        } catch (IOException e) {
+            logger.warn("Could not delete cache file {}: {}", path, e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,43 @@
+package com.krunal.loan.storage;
+
+import java.io.InputStream;
+import java.time.Duration;
+import java.util.Collection;
+
+/**
+ * Object storage used for borrower, EMI and user files. The implementation is selected with
+ * loan.app.fileStore (s3 or local), failures are thrown as unchecked exceptions.
+ */
+public interface FileStore {
+
+    /**
+     * Stores exactly contentLength bytes read from the stream under key, replacing any existing object.
+     *
+     * @param key Object key, a relative path such as yyyy/MM/dd/name.jpg
+     * @param content Content to store, read once and not closed
+     * @param contentLength Number of bytes to read from the stream
+     * @param contentType MIME type of the content
+     */
+    void put(String key, InputStream content, long contentLength, String contentType);
+
+    void put(String key, byte[] content, String contentType);
+
+    byte[] get(String key);
+
+    boolean exists(String key);
+
+    // Missing keys are ignored
+    void delete(Collection<String> keys);
+
+    // Whether getUrl can hand out URLs clients download from directly
+    default boolean supportsUrls() {
+        return false;
+    }
+
+    /**
+     * Time limited download URL of an object, only available when supportsUrls is true.
+     */
+    default String getUrl(String key, Duration ttl) {
+        throw new UnsupportedOperationException("Download URLs are not supported by " + getClass().getSimpleName());
+    }
+}
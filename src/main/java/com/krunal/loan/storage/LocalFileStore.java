@@ -0,0 +1,165 @@
+package com.krunal.loan.storage;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Collection;
+
+// Stores objects as files under a base directory, for running and load testing without AWS
+@Component
+@ConditionalOnProperty(name = "loan.app.fileStore", havingValue = "local")
+public class LocalFileStore implements FileStore {
+    private static final Logger logger = LoggerFactory.getLogger(LocalFileStore.class);
+    // Below this size a plain read is cheaper than setting up a mapping
+    private static final long MAP_THRESHOLD = 256 * 1024;
+
+    private final Path baseDir;
+
+    public LocalFileStore(@Value("${loan.app.fileStore.localDir:${java.io.tmpdir}/loan-files}") String localDir) {
+        this.baseDir = Path.of(localDir).toAbsolutePath().normalize();
+        try {
+            Files.createDirectories(baseDir);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot create file store directory " + baseDir, e);
+        }
+        logger.info("Local file store at {}", baseDir);
+    }
+
+    /**
+     * Copies the stream into a temp file with FileChannel.transferFrom and moves it into place, readers never
+     * see a partially written object.
+     */
+    @Override
+    public void put(String key, InputStream content, long contentLength, String contentType) {
+        Path target = resolve(key);
+        Path temp = null;
+        try {
+            Files.createDirectories(target.getParent());
+            temp = Files.createTempFile(target.getParent(), ".upload", ".tmp");
+            try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.WRITE)) {
+                ReadableByteChannel source = Channels.newChannel(content);
+                long position = 0;
+                while (position < contentLength) {
+                    long transferred = channel.transferFrom(source, position, contentLength - position);
+                    if (transferred <= 0) {
+                        break;
+                    }
+                    position += transferred;
+                }
+                // A stream that ends early would otherwise be stored truncated
+                if (position < contentLength) {
+                    throw new IOException("Stream ended after " + position + " of " + contentLength + " bytes");
+                }
+            }
+            Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            logger.info("Object stored with key: {}", key);
+        } catch (IOException e) {
+            deleteQuietly(temp);
+            throw new UncheckedIOException("Error storing " + key, e);
+        }
+    }
+
+    @Override
+    public void put(String key, byte[] content, String contentType) {
+        Path target = resolve(key);
+        Path temp = null;
+        try {
+            Files.createDirectories(target.getParent());
+            temp = Files.createTempFile(target.getParent(), ".upload", ".tmp");
+            try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.WRITE)) {
+                ByteBuffer buffer = ByteBuffer.wrap(content);
+                while (buffer.hasRemaining()) {
+                    channel.write(buffer);
+                }
+            }
+            Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            logger.info("Object stored with key: {}", key);
+        } catch (IOException e) {
+            deleteQuietly(temp);
+            throw new UncheckedIOException("Error storing " + key, e);
+        }
+    }
+
+    // Large files are read through a read-only mapping instead of copying through a heap buffer
+    @Override
+    public byte[] get(String key) {
+        try (FileChannel channel = FileChannel.open(resolve(key), StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size > Integer.MAX_VALUE) {
+                throw new IOException("Object " + key + " is too large to load");
+            }
+            byte[] content = new byte[(int) size];
+            if (size < MAP_THRESHOLD) {
+                ByteBuffer buffer = ByteBuffer.wrap(content);
+                int read;
+                do {
+                    read = channel.read(buffer);
+                } while (read >= 0 && buffer.hasRemaining());
+            } else {
+                MappedByteBuffer mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+                mapped.get(content);
+            }
+            return content;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Error reading " + key, e);
+        }
+    }
+
+    @Override
+    public boolean exists(String key) {
+        return Files.isRegularFile(resolve(key));
+    }
+
+    @Override
+    public void delete(Collection<String> keys) {
+        if (keys == null || keys.isEmpty()) {
+            return;
+        }
+        for (String key : keys) {
+            try {
+                Files.deleteIfExists(resolve(key));
+            } catch (IOException e) {
+                throw new UncheckedIOException("Error deleting " + key, e);
+            }
+        }
+        logger.info("Deleted {} objects from the local file store", keys.size());
+    }
+
+    // Keys are relative paths, anything resolving outside the base directory is rejected
+    private Path resolve(String key) {
+        if (key == null || key.isBlank()) {
+            throw new IllegalArgumentException("File key must not be empty");
+        }
+        Path path = baseDir.resolve(key).normalize();
+        if (!path.startsWith(baseDir) || path.equals(baseDir)) {
+            throw new IllegalArgumentException("Invalid file key: " + key);
+        }
+        return path;
+    }
+
+    private static void deleteQuietly(Path path) {
+        if (path == null) {
+            return;
+        }
+        try {
+            Files.deleteIfExists(path);
+        } catch (IOException e) {
+            logger.warn("Could not delete temp file {}: {}", path, e.getMessage());
+        }
+    }
+}
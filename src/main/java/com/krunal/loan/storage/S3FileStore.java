@@ -0,0 +1,116 @@
+package com.krunal.loan.storage;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import software.amazon.awssdk.core.sync.RequestBody;
+import software.amazon.awssdk.services.s3.S3Client;
+import software.amazon.awssdk.services.s3.model.Delete;
+import software.amazon.awssdk.services.s3.model.DeleteObjectsRequest;
+import software.amazon.awssdk.services.s3.model.GetObjectRequest;
+import software.amazon.awssdk.services.s3.model.HeadObjectRequest;
+import software.amazon.awssdk.services.s3.model.NoSuchKeyException;
+import software.amazon.awssdk.services.s3.model.ObjectIdentifier;
+import software.amazon.awssdk.services.s3.model.PutObjectRequest;
+import software.amazon.awssdk.services.s3.model.S3Exception;
+import software.amazon.awssdk.services.s3.presigner.S3Presigner;
+import software.amazon.awssdk.services.s3.presigner.model.GetObjectPresignRequest;
+
+import java.io.InputStream;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.List;
+
+@Component
+@ConditionalOnProperty(name = "loan.app.fileStore", havingValue = "s3", matchIfMissing = true)
+public class S3FileStore implements FileStore {
+    private static final Logger logger = LoggerFactory.getLogger(S3FileStore.class);
+
+    private final S3Client s3Client;
+    private final S3Presigner s3Presigner;
+    private final String bucketName;
+
+    public S3FileStore(S3Client s3Client, S3Presigner s3Presigner, @Value("${aws.s3.bucketName}") String bucketName) {
+        this.s3Client = s3Client;
+        this.s3Presigner = s3Presigner;
+        this.bucketName = bucketName;
+    }
+
+    @Override
+    public void put(String key, InputStream content, long contentLength, String contentType) {
+        s3Client.putObject(putRequest(key, contentType, contentLength), RequestBody.fromInputStream(content, contentLength));
+        logger.info("Object uploaded with key: {}", key);
+    }
+
+    @Override
+    public void put(String key, byte[] content, String contentType) {
+        s3Client.putObject(putRequest(key, contentType, content.length), RequestBody.fromBytes(content));
+        logger.info("Object uploaded with key: {}", key);
+    }
+
+    @Override
+    public byte[] get(String key) {
+        GetObjectRequest getObjectRequest = GetObjectRequest.builder()
+                .bucket(bucketName)
+                .key(key)
+                .build();
+        byte[] content = s3Client.getObjectAsBytes(getObjectRequest).asByteArray();
+        logger.info("Successfully downloaded object with key: {}", key);
+        return content;
+    }
+
+    // HEAD request, no content is transferred
+    @Override
+    public boolean exists(String key) {
+        try {
+            s3Client.headObject(HeadObjectRequest.builder().bucket(bucketName).key(key).build());
+            return true;
+        } catch (NoSuchKeyException e) {
+            return false;
+        } catch (S3Exception e) {
+            if (e.statusCode() == 404) {
+                return false;
+            }
+            throw e;
+        }
+    }
+
+    @Override
+    public void delete(Collection<String> keys) {
+        if (keys == null || keys.isEmpty()) {
+            return;
+        }
+        List<ObjectIdentifier> objects = keys.stream().map(key -> ObjectIdentifier.builder().key(key).build()).toList();
+        s3Client.deleteObjects(DeleteObjectsRequest.builder()
+                .bucket(bucketName)
+                .delete(Delete.builder().objects(objects).quiet(true).build())
+                .build());
+        logger.info("Deleted {} objects from S3", keys.size());
+    }
+
+    @Override
+    public boolean supportsUrls() {
+        return true;
+    }
+
+    // Signed locally, no request is sent to S3
+    @Override
+    public String getUrl(String key, Duration ttl) {
+        GetObjectPresignRequest presignRequest = GetObjectPresignRequest.builder()
+                .signatureDuration(ttl)
+                .getObjectRequest(GetObjectRequest.builder().bucket(bucketName).key(key).build())
+                .build();
+        return s3Presigner.presignGetObject(presignRequest).url().toString();
+    }
+
+    private PutObjectRequest putRequest(String key, String contentType, long contentLength) {
+        return PutObjectRequest.builder()
+                .bucket(bucketName)
+                .key(key)
+                .contentType(contentType)
+                .contentLength(contentLength)
+                .build();
+    }
+}
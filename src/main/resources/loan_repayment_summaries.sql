@@ -0,0 +1,13 @@
+-- One-time backfill of repayment summaries for loans created before summaries were maintained.
+-- Loans with a schedule are summarized from their EMIs, loans without one get nothing received against duration * EMI.
+INSERT IGNORE INTO taxpayers.loan_repayment_summaries (loan_id,total_amount,received_amount,received_emis,outstanding_amount,next_due_date,updated_date)
+SELECT s.loan_id, s.total_amount, s.received_amount, s.received_emis, ROUND(s.total_amount - s.received_amount, 2), s.next_due_date, NOW()
+FROM (SELECT loan_id, ROUND(SUM(emi_amount), 2) AS total_amount,
+	 ROUND(COALESCE(SUM(CASE WHEN status = 1 THEN emi_received_amount END), 0), 2) AS received_amount,
+	 SUM(CASE WHEN status = 1 THEN 1 ELSE 0 END) AS received_emis,
+	 MIN(CASE WHEN status IN (2, 3) THEN emi_date END) AS next_due_date
+	 FROM taxpayers.emis GROUP BY loan_id) s;
+
+INSERT IGNORE INTO taxpayers.loan_repayment_summaries (loan_id,total_amount,received_amount,received_emis,outstanding_amount,next_due_date,updated_date)
+SELECT l.id, ROUND(l.emp_per_month * l.loan_duration, 2), 0, 0, ROUND(l.emp_per_month * l.loan_duration, 2), NULL, NOW()
+FROM taxpayers.loans l;
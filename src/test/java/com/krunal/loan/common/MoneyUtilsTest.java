@@ -0,0 +1,102 @@
+package com.krunal.loan.common;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class MoneyUtilsTest {
+
+    private static final int ITERATIONS = 20_000;
+
+    @Test
+    void divideMatchesBigDecimalForEveryModeAndSign() {
+        Random random = new Random(42);
+        long[] edgeDividends = {0, 1, -1, 5, -5, 7, -7, 10, -10, 15, -15, 25, -25, 1_000_003, -1_000_003};
+        long[] edgeDivisors = {1, -1, 2, -2, 3, -3, 4, -4, 10, -10, 7, -7};
+        for (RoundingMode mode : RoundingMode.values()) {
+            for (long dividend : edgeDividends) {
+                for (long divisor : edgeDivisors) {
+                    assertDivideMatches(dividend, divisor, mode);
+                }
+            }
+            for (int i = 0; i < ITERATIONS; i++) {
+                long dividend = random.nextLong(-10_000_000_000L, 10_000_000_000L);
+                long divisor = random.nextLong(1, 100_000);
+                if (random.nextBoolean()) {
+                    divisor = -divisor;
+                }
+                assertDivideMatches(dividend, divisor, mode);
+                // Exact halves exercise the HALF_* tie breaking
+                assertDivideMatches(dividend * 2 + 1, 2, mode);
+            }
+        }
+    }
+
+    @Test
+    void divideByZeroThrows() {
+        assertThrows(ArithmeticException.class, () -> MoneyUtils.divide(10, 0, RoundingMode.HALF_UP));
+    }
+
+    @Test
+    void flatInstalmentsSumExactlyToTotal() {
+        Random random = new Random(7);
+        for (int i = 0; i < ITERATIONS; i++) {
+            // Small totals make the rounded instalment exceed the total over all but the last instalment
+            long total = i % 4 == 0 ? random.nextLong(0, 1_000) : random.nextLong(0, 10_000_000_000L);
+            int instalments = random.nextInt(1, 601);
+            assertFlatInstalmentsReconcile(total, instalments);
+        }
+        for (long total = 0; total <= 200; total++) {
+            for (int instalments = 1; instalments <= 120; instalments++) {
+                assertFlatInstalmentsReconcile(total, instalments);
+            }
+        }
+    }
+
+    @Test
+    void flatInstalmentRejectsNonPositiveCount() {
+        assertThrows(IllegalArgumentException.class, () -> MoneyUtils.flatInstalment(1_000, 0));
+    }
+
+    @Test
+    void simpleInterestMatchesBigDecimal() {
+        Random random = new Random(11);
+        for (int i = 0; i < ITERATIONS; i++) {
+            long principal = random.nextLong(1, 10_000_000_000L);
+            long rateUnits = random.nextLong(0, 360_000);
+            int months = random.nextInt(1, 361);
+            BigDecimal expected = BigDecimal.valueOf(principal)
+                    .multiply(BigDecimal.valueOf(rateUnits))
+                    .multiply(BigDecimal.valueOf(months))
+                    .divide(BigDecimal.valueOf(100L * MoneyUtils.RATE_SCALE * 12L), 0, RoundingMode.HALF_UP);
+            assertEquals(expected.longValueExact(), MoneyUtils.simpleInterest(principal, rateUnits, months, RoundingMode.HALF_UP));
+        }
+    }
+
+    private static void assertFlatInstalmentsReconcile(long total, int instalments) {
+        long instalment = MoneyUtils.flatInstalment(total, instalments);
+        long last = MoneyUtils.lastFlatInstalment(total, instalments);
+        String inputs = "total=" + total + ", instalments=" + instalments;
+        assertTrue(instalment >= 0, inputs);
+        assertTrue(last >= 0, inputs);
+        assertEquals(total, instalment * (instalments - 1) + last, inputs);
+    }
+
+    private static void assertDivideMatches(long dividend, long divisor, RoundingMode mode) {
+        BigDecimal quotient = BigDecimal.valueOf(dividend).divide(BigDecimal.valueOf(divisor), 0, RoundingMode.DOWN);
+        boolean exact = quotient.multiply(BigDecimal.valueOf(divisor)).longValueExact() == dividend;
+        String inputs = dividend + " / " + divisor + " " + mode;
+        if (mode == RoundingMode.UNNECESSARY && !exact) {
+            assertThrows(ArithmeticException.class, () -> MoneyUtils.divide(dividend, divisor, mode), inputs);
+            return;
+        }
+        long expected = BigDecimal.valueOf(dividend).divide(BigDecimal.valueOf(divisor), 0, mode).longValueExact();
+        assertEquals(expected, MoneyUtils.divide(dividend, divisor, mode), inputs);
+    }
+}
@@ -0,0 +1,104 @@
+package com.krunal.loan.service.amortization;
+
+import com.krunal.loan.common.MoneyUtils;
+import com.krunal.loan.models.AmortizationMethod;
+import org.junit.jupiter.api.Test;
+
+import java.math.RoundingMode;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// Schedules built over randomized terms must reconcile to the paisa
+class AmortizationEngineTest {
+
+    private static final int ITERATIONS = 2_000;
+
+    private final AmortizationEngine engine = new AmortizationEngine(List.of(new FlatAmortization(),
+            new ReducingBalanceAmortization(), new InterestOnlyAmortization(), new StepUpAmortization()));
+
+    @Test
+    void flatSchedulesSumToPrincipalPlusSimpleInterest() {
+        Random random = new Random(1);
+        for (int i = 0; i < ITERATIONS; i++) {
+            AmortizationTerms terms = randomTerms(random, AmortizationMethod.FLAT, 360);
+            AmortizationSchedule schedule = assertReconciles(terms);
+            long expectedInterest = MoneyUtils.simpleInterest(terms.principalPaise(), terms.rateUnits(), terms.months(), RoundingMode.HALF_UP);
+            assertEquals(expectedInterest, schedule.totalInterest(), terms.toString());
+        }
+    }
+
+    @Test
+    void reducingBalanceSchedulesReconcile() {
+        Random random = new Random(2);
+        for (int i = 0; i < ITERATIONS; i++) {
+            assertReconciles(randomTerms(random, AmortizationMethod.REDUCING_BALANCE, 360));
+        }
+    }
+
+    @Test
+    void interestOnlySchedulesReconcile() {
+        Random random = new Random(3);
+        for (int i = 0; i < ITERATIONS; i++) {
+            AmortizationTerms terms = randomTerms(random, AmortizationMethod.INTEREST_ONLY, 360);
+            AmortizationSchedule schedule = assertReconciles(terms);
+            long monthlyInterest = MoneyUtils.monthlyInterest(terms.principalPaise(), terms.rateUnits());
+            assertEquals(monthlyInterest * terms.months(), schedule.totalInterest(), terms.toString());
+        }
+    }
+
+    @Test
+    void stepUpSchedulesReconcile() {
+        Random random = new Random(4);
+        int rejected = 0;
+        for (int i = 0; i < ITERATIONS; i++) {
+            AmortizationTerms base = randomTerms(random, AmortizationMethod.STEP_UP, 120);
+            AmortizationTerms terms = new AmortizationTerms(base.method(), base.principalPaise(), base.rateUnits(), base.months(),
+                    random.nextLong(10_000, 100_001), random.nextInt(3, 13));
+            try {
+                assertReconciles(terms);
+            } catch (IllegalArgumentException e) {
+                // Steep step-ups on long tenures start below the first month's interest and are rejected up front
+                rejected++;
+            }
+        }
+        assertTrue(rejected < ITERATIONS, "No step-up schedule was accepted");
+    }
+
+    @Test
+    void tenuresAboveTheLimitAreRejected() {
+        assertThrows(IllegalArgumentException.class,
+                () -> new AmortizationTerms(AmortizationMethod.FLAT, 100_000, 120_000, AmortizationTerms.MAX_MONTHS + 1, 0, 0));
+    }
+
+    private AmortizationSchedule assertReconciles(AmortizationTerms terms) {
+        String inputs = terms.toString();
+        AmortizationSchedule schedule = engine.build(terms);
+        assertEquals(terms.months(), schedule.size(), inputs);
+
+        long totalPrincipal = 0;
+        long balance = terms.principalPaise();
+        for (int i = 0; i < schedule.size(); i++) {
+            assertTrue(schedule.principal(i) >= 0, inputs + " principal of EMI " + i);
+            assertTrue(schedule.interest(i) >= 0, inputs + " interest of EMI " + i);
+            assertEquals(schedule.principal(i) + schedule.interest(i), schedule.instalment(i), inputs);
+            balance -= schedule.principal(i);
+            assertEquals(balance, schedule.balance(i), inputs);
+            totalPrincipal += schedule.principal(i);
+        }
+        assertEquals(terms.principalPaise(), totalPrincipal, inputs);
+        assertEquals(terms.principalPaise() + schedule.totalInterest(), schedule.totalInstalments(), inputs);
+        assertEquals(0L, schedule.balance(schedule.size() - 1), inputs);
+        return schedule;
+    }
+
+    // 1,000.00 to 10,000,000.00 rupees with paise, rates from 0% to 36.00%
+    private static AmortizationTerms randomTerms(Random random, AmortizationMethod method, int maxMonths) {
+        long principal = random.nextLong(100_000L, 1_000_000_001L);
+        long rateUnits = random.nextInt(0, 3601) * (MoneyUtils.RATE_SCALE / 100);
+        return new AmortizationTerms(method, principal, rateUnits, random.nextInt(1, maxMonths + 1), 0, 0);
+    }
+}
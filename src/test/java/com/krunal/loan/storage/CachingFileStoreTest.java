@@ -0,0 +1,46 @@
+package com.krunal.loan.storage;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+// Runs the contract against the cache in front of a local store
+class CachingFileStoreTest extends FileStoreContractTest {
+
+    private LocalFileStore delegate;
+
+    @Override
+    FileStore createStore(Path dir) {
+        delegate = new LocalFileStore(dir.resolve("store").toString());
+        return new CachingFileStore(delegate, dir.resolve("cache").toString(), 4L * 1024 * 1024);
+    }
+
+    @Test
+    void cachedReadsSurviveTheDelegateLosingTheObject() {
+        byte[] content = {1, 2, 3};
+        store.put("file.bin", content, "application/octet-stream");
+        delegate.delete(List.of("file.bin"));
+        assertArrayEquals(content, store.get("file.bin"));
+    }
+
+    @Test
+    void streamPutReplacesAReadCopy() {
+        store.put("file.bin", new byte[]{1, 2, 3}, "application/octet-stream");
+        store.get("file.bin");
+        byte[] replacement = {4, 5};
+        store.put("file.bin", new ByteArrayInputStream(replacement), replacement.length, "application/octet-stream");
+        assertArrayEquals(replacement, store.get("file.bin"));
+    }
+
+    @Test
+    void existsAsksTheDelegate() {
+        store.put("file.bin", new byte[]{1, 2, 3}, "application/octet-stream");
+        delegate.delete(List.of("file.bin"));
+        assertFalse(store.exists("file.bin"));
+    }
+}
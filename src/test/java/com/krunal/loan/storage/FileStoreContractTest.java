@@ -0,0 +1,145 @@
+package com.krunal.loan.storage;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayInputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// Behaviour every FileStore must share, each implementation runs it through a subclass
+abstract class FileStoreContractTest {
+    // LocalFileStore reads files of this size and above through a mapping
+    private static final int MAP_THRESHOLD = 256 * 1024;
+
+    @TempDir
+    Path tempDir;
+
+    FileStore store;
+
+    abstract FileStore createStore(Path dir);
+
+    @BeforeEach
+    void setUp() {
+        store = createStore(tempDir);
+    }
+
+    @Test
+    void bytesRoundTrip() {
+        byte[] content = randomBytes(1_000);
+        store.put("2025/01/31/file.pdf", content, "application/pdf");
+        assertArrayEquals(content, store.get("2025/01/31/file.pdf"));
+    }
+
+    @Test
+    void streamRoundTrip() {
+        byte[] content = randomBytes(70_000);
+        store.put("2025/01/31/file.jpg", new ByteArrayInputStream(content), content.length, "image/jpeg");
+        assertArrayEquals(content, store.get("2025/01/31/file.jpg"));
+    }
+
+    @Test
+    void emptyContentRoundTrips() {
+        store.put("empty.txt", new byte[0], "text/plain");
+        assertArrayEquals(new byte[0], store.get("empty.txt"));
+    }
+
+    @Test
+    void putReplacesExistingObject() {
+        store.put("file.txt", randomBytes(500), "text/plain");
+        byte[] replacement = randomBytes(100);
+        store.put("file.txt", new ByteArrayInputStream(replacement), replacement.length, "text/plain");
+        assertArrayEquals(replacement, store.get("file.txt"));
+    }
+
+    @Test
+    void streamIsReadOnlyUpToContentLength() {
+        byte[] content = randomBytes(2_000);
+        store.put("file.bin", new ByteArrayInputStream(content), 1_500, "application/octet-stream");
+        byte[] expected = new byte[1_500];
+        System.arraycopy(content, 0, expected, 0, expected.length);
+        assertArrayEquals(expected, store.get("file.bin"));
+    }
+
+    @Test
+    void shortStreamIsRejected() {
+        byte[] content = randomBytes(1_000);
+        assertThrows(RuntimeException.class,
+                () -> store.put("short.bin", new ByteArrayInputStream(content), 1_001, "application/octet-stream"));
+        assertFalse(store.exists("short.bin"));
+    }
+
+    @Test
+    void shortStreamLeavesExistingObjectUntouched() {
+        byte[] original = randomBytes(300);
+        store.put("file.bin", original, "application/octet-stream");
+        assertThrows(RuntimeException.class,
+                () -> store.put("file.bin", new ByteArrayInputStream(new byte[10]), 20, "application/octet-stream"));
+        assertArrayEquals(original, store.get("file.bin"));
+    }
+
+    @Test
+    void existsReflectsStoredObjects() {
+        assertFalse(store.exists("a/b.txt"));
+        store.put("a/b.txt", randomBytes(10), "text/plain");
+        assertTrue(store.exists("a/b.txt"));
+        assertFalse(store.exists("a/c.txt"));
+    }
+
+    @Test
+    void deleteRemovesObjectsAndIgnoresMissingKeys() {
+        store.put("one.txt", randomBytes(10), "text/plain");
+        store.put("two.txt", randomBytes(10), "text/plain");
+        store.get("one.txt");
+        store.delete(List.of("one.txt", "missing.txt", "two.txt"));
+        assertFalse(store.exists("one.txt"));
+        assertFalse(store.exists("two.txt"));
+        store.delete(List.of("missing.txt"));
+        store.delete(List.of());
+        store.delete(null);
+    }
+
+    @Test
+    void getOfMissingKeyThrows() {
+        assertThrows(RuntimeException.class, () -> store.get("missing.txt"));
+    }
+
+    @Test
+    void keysEscapingTheStoreAreRejected() {
+        byte[] content = randomBytes(10);
+        for (String key : List.of("../outside.txt", "a/../../outside.txt", "/etc/passwd", "", " ")) {
+            assertThrows(IllegalArgumentException.class, () -> store.put(key, content, "text/plain"), key);
+            assertThrows(IllegalArgumentException.class,
+                    () -> store.put(key, new ByteArrayInputStream(content), content.length, "text/plain"), key);
+            assertThrows(IllegalArgumentException.class, () -> store.get(key), key);
+            assertThrows(IllegalArgumentException.class, () -> store.exists(key), key);
+        }
+        assertFalse(Files.exists(tempDir.getParent().resolve("outside.txt")));
+    }
+
+    @Test
+    void objectsAroundTheMappingThresholdRoundTrip() {
+        for (int size : new int[]{MAP_THRESHOLD - 1, MAP_THRESHOLD, MAP_THRESHOLD + 1, 3 * MAP_THRESHOLD + 17}) {
+            byte[] content = randomBytes(size);
+            String key = "large/" + size + ".bin";
+            store.put(key, new ByteArrayInputStream(content), content.length, "application/octet-stream");
+            assertArrayEquals(content, store.get(key), "size=" + size);
+            // A second read may be served from a different path, such as a cache
+            assertArrayEquals(content, store.get(key), "size=" + size);
+        }
+    }
+
+    private static byte[] randomBytes(int size) {
+        byte[] content = new byte[size];
+        new Random(size).nextBytes(content);
+        return content;
+    }
+}
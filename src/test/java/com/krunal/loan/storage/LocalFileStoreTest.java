@@ -0,0 +1,29 @@
+package com.krunal.loan.storage;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class LocalFileStoreTest extends FileStoreContractTest {
+
+    @Override
+    FileStore createStore(Path dir) {
+        return new LocalFileStore(dir.toString());
+    }
+
+    @Test
+    void shortStreamLeavesNoTempFile() throws IOException {
+        assertThrows(RuntimeException.class,
+                () -> store.put("a/short.bin", new ByteArrayInputStream(new byte[10]), 20, "application/octet-stream"));
+        try (Stream<Path> files = Files.walk(tempDir)) {
+            assertEquals(0, files.filter(Files::isRegularFile).count());
+        }
+    }
+}